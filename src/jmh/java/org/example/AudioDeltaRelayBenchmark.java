@@ -0,0 +1,73 @@
+package org.example;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Turning one {@code response.audio.delta} into the Twilio {@code media} frame, per delta size in bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioDeltaRelayBenchmark {
+  private static final String STREAM_SID = "MZ18ad3ab5a668481ce02b83e7395059f0";
+
+  @Param({"800", "4800"})
+  public int deltaBytes;
+
+  private String message;
+  private TwilioMediaFrame mediaFrame;
+
+  @Setup
+  public void setUp() {
+    byte[] audio = new byte[deltaBytes];
+    new Random(7).nextBytes(audio);
+    message = "{\"type\":\"response.audio.delta\",\"event_id\":\"event_AQ2\",\"response_id\":\"resp_AQ1\","
+            + "\"item_id\":\"item_AQ1\",\"output_index\":0,\"content_index\":0,\"delta\":\""
+            + Base64.getEncoder().encodeToString(audio) + "\"}";
+    mediaFrame = new TwilioMediaFrame();
+    mediaFrame.setStreamSid(STREAM_SID);
+  }
+
+  /**
+   * The original handler: parse, base64 decode, re-encode the same bytes and build a new tree.
+   */
+  @Benchmark
+  public String decodeReencode() {
+    JSONObject response = new JSONObject(message);
+    if ("response.audio.delta".equals(response.getString("type")) && response.has("delta")) {
+      byte[] audioPayload = Base64.getDecoder().decode(response.getString("delta"));
+      JSONObject audioDelta = new JSONObject();
+      audioDelta.put("event", "media");
+      audioDelta.put("streamSid", STREAM_SID);
+      audioDelta.put("media", new JSONObject().put("payload", Base64.getEncoder().encodeToString(audioPayload)));
+      return audioDelta.toString();
+    }
+    return null;
+  }
+
+  @Benchmark
+  public String passthrough() {
+    if (TwilioMediaFrame.isAudioDelta(message)) {
+      return mediaFrame.fromAudioDelta(message);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,148 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Compares a JMH JSON result file with the committed baseline and prints the change in time per op and
+ * bytes allocated per op for every benchmark, and p50 and p99 for benchmarks run in sample mode. With
+ * {@code --update} the result replaces the baseline entries of the benchmarks it ran and keeps the rest.
+ * <p>
+ * Usage: {@code BenchmarkBaseline <result.json> <baseline.json> [update] [--fail-above=<percent>]}
+ */
+public class BenchmarkBaseline {
+  private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  public static void main(String[] args) throws IOException {
+    File result = new File(args[0]);
+    File baseline = new File(args[1]);
+    boolean update = false;
+    double failAbove = Double.NaN;
+    for (int i = 2; i < args.length; i++) {
+      if ("--update".equals(args[i]) || "update".equals(args[i])) {
+        update = true;
+      } else if (args[i].startsWith("--fail-above=")) {
+        failAbove = Double.parseDouble(args[i].substring("--fail-above=".length()));
+      }
+    }
+
+    if (!result.isFile()) {
+      System.out.println("No benchmark result at " + result);
+      return;
+    }
+    if (update || !baseline.isFile()) {
+      save(result, baseline);
+      System.out.println("Saved benchmark baseline to " + baseline);
+      return;
+    }
+
+    Map<String, double[]> current = read(result);
+    Map<String, double[]> previous = read(baseline);
+    boolean regressed = false;
+    System.out.println(String.format("%-70s %14s %9s %14s %9s", "Benchmark", "time/op", "change", "B/op", "change"));
+    for (Map.Entry<String, double[]> entry : current.entrySet()) {
+      double[] now = entry.getValue();
+      double[] before = previous.get(entry.getKey());
+      double timeChange = before == null ? Double.NaN : percentChange(before[0], now[0]);
+      double allocChange = before == null ? Double.NaN : percentChange(before[1], now[1]);
+      System.out.println(String.format("%-70s %14.1f %8.1f%% %14.1f %8.1f%%",
+              entry.getKey(), now[0], timeChange, now[1], allocChange));
+      if (!Double.isNaN(failAbove) && (timeChange > failAbove || allocChange > failAbove)) {
+        regressed = true;
+      }
+    }
+    boolean header = false;
+    for (Map.Entry<String, double[]> entry : current.entrySet()) {
+      double[] now = entry.getValue();
+      if (Double.isNaN(now[2])) {
+        continue;
+      }
+      if (!header) {
+        System.out.println();
+        System.out.println(String.format("%-70s %14s %9s %14s %9s", "Benchmark", "p50", "change", "p99", "change"));
+        header = true;
+      }
+      double[] before = previous.get(entry.getKey());
+      System.out.println(String.format("%-70s %14.1f %8.1f%% %14.1f %8.1f%%",
+              entry.getKey(), now[2], before == null ? Double.NaN : percentChange(before[2], now[2]),
+              now[3], before == null ? Double.NaN : percentChange(before[3], now[3])));
+    }
+    if (regressed) {
+      throw new IllegalStateException("Benchmarks regressed by more than " + failAbove + "% against " + baseline);
+    }
+  }
+
+  /**
+   * Writes the runs in the result over the baseline runs with the same key, keeping the other baseline runs.
+   */
+  private static void save(File result, File baseline) throws IOException {
+    Map<String, JsonNode> runs = new LinkedHashMap<>();
+    if (baseline.isFile()) {
+      for (JsonNode run : MAPPER.readTree(baseline)) {
+        runs.put(key(run), run);
+      }
+    }
+    for (JsonNode run : MAPPER.readTree(result)) {
+      // Sample-mode runs carry every sample; the comparison only needs the percentiles
+      ((ObjectNode) run.get("primaryMetric")).remove("rawDataHistogram");
+      runs.put(key(run), run);
+    }
+    ArrayNode merged = MAPPER.createArrayNode();
+    merged.addAll(runs.values());
+    baseline.getParentFile().mkdirs();
+    // Indented the way JMH writes its result, so updating a few benchmarks only changes their lines
+    DefaultIndenter indenter = new DefaultIndenter("    ", "\n");
+    MAPPER.writer(new DefaultPrettyPrinter().withObjectIndenter(indenter).withArrayIndenter(indenter))
+            .writeValue(baseline, merged);
+  }
+
+  /**
+   * Maps "benchmark [params]" to {score, allocated bytes per op, p50, p99}; the percentiles are NaN unless
+   * the benchmark ran in sample mode.
+   */
+  private static Map<String, double[]> read(File file) throws IOException {
+    Map<String, double[]> scores = new LinkedHashMap<>();
+    for (JsonNode run : MAPPER.readTree(file)) {
+      double alloc = Double.NaN;
+      for (Iterator<Map.Entry<String, JsonNode>> it = run.path("secondaryMetrics").fields(); it.hasNext(); ) {
+        Map.Entry<String, JsonNode> metric = it.next();
+        if (metric.getKey().endsWith(ALLOC_NORM)) {
+          alloc = metric.getValue().get("score").asDouble();
+        }
+      }
+      JsonNode primary = run.get("primaryMetric");
+      double p50 = Double.NaN;
+      double p99 = Double.NaN;
+      if ("sample".equals(run.path("mode").asText())) {
+        p50 = primary.path("scorePercentiles").path("50.0").asDouble(Double.NaN);
+        p99 = primary.path("scorePercentiles").path("99.0").asDouble(Double.NaN);
+      }
+      scores.put(key(run), new double[]{primary.get("score").asDouble(), alloc, p50, p99});
+    }
+    return scores;
+  }
+
+  private static String key(JsonNode run) {
+    StringBuilder key = new StringBuilder(run.get("benchmark").asText().replace("org.example.", ""));
+    for (Iterator<Map.Entry<String, JsonNode>> it = run.path("params").fields(); it.hasNext(); ) {
+      Map.Entry<String, JsonNode> param = it.next();
+      key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+    }
+    return key.toString();
+  }
+
+  private static double percentChange(double before, double now) {
+    return before == 0 ? 0 : (now - before) / before * 100;
+  }
+}
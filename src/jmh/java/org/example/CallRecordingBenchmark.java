@@ -0,0 +1,64 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What recording adds to the media path for one 20 ms Twilio frame: decoding it into the call's ring, and
+ * the writer's drain of the same bytes into a buffer standing in for the mapped file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallRecordingBenchmark {
+  private String payload;
+  private CallRecording.Track track;
+  private AudioRingBuffer ring;
+  private ByteBuffer file;
+  private byte[] frame;
+
+  @Setup
+  public void setUp() {
+    frame = new byte[160];
+    new Random(7).nextBytes(frame);
+    payload = Base64.getEncoder().encodeToString(frame);
+    CallRecording recording = new CallRecording("bench", Paths.get("."), 32000, 0, new AtomicLong(), new AtomicLong());
+    track = recording.inbound();
+    ring = new AudioRingBuffer(32000);
+    file = ByteBuffer.allocateDirect(32768);
+  }
+
+  /**
+   * Producer side only; the ring fills up after a few hundred frames and the rest count as dropped, which
+   * costs the same decode.
+   */
+  @Benchmark
+  public void appendFrame() {
+    track.appendBase64(payload, 0, payload.length());
+  }
+
+  @Benchmark
+  public int offerAndDrain() {
+    ring.offer(frame, 0, frame.length);
+    file.clear();
+    return ring.drainTo(file);
+  }
+}
@@ -0,0 +1,149 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JsonUtils hot paths. The {@code legacy...} methods are copies of the implementations the cached
+ * readers, token-skipping validators and regex-free form parser replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilsBenchmark {
+  private static final String FUNCTION_CALL = "{\"type\":\"response.function_call_arguments.done\","
+          + "\"event_id\":\"event_AQ7\",\"response_id\":\"resp_AQ6\",\"item_id\":\"item_AQ5\",\"output_index\":1,"
+          + "\"call_id\":\"call_mT3x\",\"name\":\"get_user_query\","
+          + "\"arguments\":\"{\\\"inference\\\":\\\"What are the shipping charges for an order to Chennai?\\\"}\"}";
+  private static final String HEADER_FORM = "{user=fsfwerwer23423423sfs,token=332fsgfgfgwerwq3rqr,locale=en-IN}";
+  private static final String TRANSLATIONS = "{\"version\":3,\"translations\":{"
+          + "\"en-IN\":\"Hello! You have reached the support line. How can I help you today?\","
+          + "\"hi-IN\":\"Namaste! Aap support line par hain. Main aapki kya madad kar sakti hoon?\","
+          + "\"ta-IN\":\"Vanakkam! Neengal support line-il irukkireergal. Naan eppadi udhava mudiyum?\","
+          + "\"fr-FR\":\"Bonjour ! Vous \u00eates bien au service client. Comment puis-je vous aider ?\","
+          + "\"de-DE\":\"Hallo! Sie sind mit dem Kundendienst verbunden. Wie kann ich helfen?\"}}";
+  private static final ObjectMapper LEGACY_MAPPER = new ObjectMapper()
+          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+          .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true)
+          .configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true)
+          .configure(JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS, true);
+
+  @Benchmark
+  public Map<String, String> getMapFromJson() {
+    return JsonUtils.getMapFromJson(FUNCTION_CALL);
+  }
+
+  @Benchmark
+  public Map<String, String> legacyGetMapFromJson() throws IOException {
+    return LEGACY_MAPPER.readValue(FUNCTION_CALL, new TypeReference<Map<String, String>>() {
+    });
+  }
+
+  /**
+   * What {@code CallBridge} does with a {@code response.function_call_arguments.done} event: one typed
+   * bind, then the arguments once the tool runs.
+   */
+  @Benchmark
+  public String parseFunctionCall() {
+    RealtimeEvent event = JsonUtils.parseJsonResponse(FUNCTION_CALL, RealtimeEvent.class);
+    return event.getCallId() + event.getToolArguments().getInference();
+  }
+
+  /**
+   * The org.json tree, re-serialized and parsed again into a map, then the arguments a third time.
+   */
+  @Benchmark
+  public String legacyParseFunctionCall() {
+    JSONObject response = new JSONObject(FUNCTION_CALL);
+    Map<String, String> data = JsonUtils.getMapFromJson(response.toString());
+    Map<String, String> args = JsonUtils.getMapFromJson(data.get("arguments"));
+    return data.get("call_id") + args.get("inference");
+  }
+
+  @Benchmark
+  public String getTranslationsForLocale() {
+    return JsonUtils.getTranslationsForLocale("ta-IN", TRANSLATIONS);
+  }
+
+  @Benchmark
+  public String legacyGetTranslationsForLocale() {
+    JSONObject jsonObject = new JSONObject(TRANSLATIONS);
+    if (jsonObject.has("translations")) {
+      jsonObject = (JSONObject) jsonObject.get("translations");
+      if (null != jsonObject && jsonObject.has("ta-IN") && null != jsonObject.get("ta-IN")) {
+        return jsonObject.get("ta-IN").toString();
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public JsonNode getRootJsonNode() {
+    return JsonUtils.getRootJsonNode(FUNCTION_CALL);
+  }
+
+  @Benchmark
+  public boolean isValidJsonObject() {
+    return JsonUtils.isValidJsonObject(FUNCTION_CALL);
+  }
+
+  @Benchmark
+  public boolean legacyIsValidJsonObject() throws IOException {
+    JsonNode node = LEGACY_MAPPER.readTree(FUNCTION_CALL);
+    return node != null && node.isObject();
+  }
+
+  @Benchmark
+  public Map<String, String> getValuesFromHeaderForm() {
+    return JsonUtils.getValuesFromHeaderForm(HEADER_FORM);
+  }
+
+  @Benchmark
+  public Map<String, String> legacyGetValuesFromHeaderForm() {
+    Map<String, String> dataMap = new LinkedHashMap<>();
+    Pattern p = Pattern.compile("\\{(.+=.+,?)+\\}");
+    Matcher m = p.matcher(HEADER_FORM);
+    if (m.find()) {
+      for (String data : m.group(1).split(",")) {
+        String[] dataField = data.split("=");
+        if (dataField.length == 2) {
+          dataMap.put(dataField[0], dataField[1]);
+        }
+      }
+    }
+    return dataMap;
+  }
+
+  @Benchmark
+  public boolean isValidFormData() {
+    return JsonUtils.isValidFormData(HEADER_FORM);
+  }
+
+  @Benchmark
+  public boolean legacyIsValidFormData() {
+    return Pattern.compile("\\{(.+=.+,?)+\\}").matcher(HEADER_FORM).matches();
+  }
+}
@@ -0,0 +1,83 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/**
+ * Building the {@code session.update} payload sent on every upstream connect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionUpdateBenchmark {
+  private AssistantProfiles profiles;
+  private String instructions;
+  private String tools;
+
+  @Setup
+  public void setUp() throws Exception {
+    profiles = new AssistantProfiles(new DefaultResourceLoader(), "classpath:assistant-profiles.json", 0);
+    profiles.start();
+    JsonNode session = JsonUtils.getRootJsonNode(profiles.getDefault().getSessionUpdate()).get("session");
+    instructions = session.get("instructions").asText();
+    tools = session.get("tools").toString();
+  }
+
+  /**
+   * The original {@code sendSessionUpdate}: quote the instructions and format everything per connect.
+   */
+  @Benchmark
+  public String formatPerConnect() {
+    String turnDetection = String.format(
+            "{"
+                    + "\"type\": \"%s\","
+                    + "\"threshold\": %s,"
+                    + "\"prefix_padding_ms\": %s,"
+                    + "\"silence_duration_ms\": %s"
+                    + "}",
+            "server_vad", 0.5, 300, 500
+    );
+    return String.format(
+            "{"
+                    + "\"type\": \"%s\","
+                    + "\"session\": {"
+                    + "\"instructions\": %s,"
+                    + "\"turn_detection\": %s,"
+                    + "\"input_audio_format\": \"%s\","
+                    + "\"output_audio_format\": \"%s\","
+                    + "\"voice\": \"%s\","
+                    + "\"temperature\": %s,"
+                    + "\"max_response_output_tokens\": 4096,"
+                    + "\"modalities\": %s,"
+                    + "\"input_audio_transcription\": {"
+                    + "\"model\": \"whisper-1\""
+                    + "},"
+                    + "\"tool_choice\": \"auto\","
+                    + "\"tools\": %s"
+                    + "}"
+                    + "}",
+            "session.update", JSONObject.quote(instructions), turnDetection, "g711_ulaw", "g711_ulaw", "alloy", 0.8,
+            "[\"text\", \"audio\"]", tools);
+  }
+
+  @Benchmark
+  public String preSerializedProfile() {
+    return profiles.forNumber("+15550100").getSessionUpdate();
+  }
+}
@@ -0,0 +1,64 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Turning one inbound Twilio media frame into the {@code input_audio_buffer.append} sent upstream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TwilioMediaParsingBenchmark {
+  private String frame;
+  private TwilioEventParser parser;
+
+  @Setup
+  public void setUp() {
+    byte[] audio = new byte[160];
+    Arrays.fill(audio, (byte) 0x7f);
+    frame = "{\"event\":\"media\",\"sequenceNumber\":\"42\",\"media\":{\"track\":\"inbound\",\"chunk\":\"41\","
+            + "\"timestamp\":\"820\",\"payload\":\"" + Base64.getEncoder().encodeToString(audio) + "\"},"
+            + "\"streamSid\":\"MZ18ad3ab5a668481ce02b83e7395059f0\"}";
+    parser = new TwilioEventParser();
+  }
+
+  /**
+   * The original {@code handleTextMessage}: an org.json tree per frame and a second one for the append.
+   */
+  @Benchmark
+  public String jsonObjectTree() {
+    JSONObject data = new JSONObject(frame);
+    if (data.getString("event").equals("media")) {
+      JSONObject audioAppend = new JSONObject();
+      audioAppend.put("type", "input_audio_buffer.append");
+      audioAppend.put("audio", data.getJSONObject("media").getString("payload"));
+      return audioAppend.toString();
+    }
+    return null;
+  }
+
+  @Benchmark
+  public String streamingParser() throws Exception {
+    if (parser.parse(frame) == TwilioEventParser.Event.MEDIA) {
+      return parser.audioAppendMessage(parser.getPayload());
+    }
+    return null;
+  }
+}
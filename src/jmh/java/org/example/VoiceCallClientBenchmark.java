@@ -0,0 +1,110 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * One {@code get_user_query} round trip to a local stand-in voicecall backend that takes 50 ms per answer,
+ * with as many calls in flight as there are benchmark threads. Sample mode records every call, so the
+ * report carries p50 and p99 as well as the mean. {@code bare} is the original {@code new RestTemplate()};
+ * {@code pooled} is the keep-alive client from {@link AppConfig}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+// Without TCP_NODELAY on the stand-in, delayed ACKs add about 40 ms to every exchange and hide the client
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class VoiceCallClientBenchmark {
+  private static final long BACKEND_WORK_MS = 50;
+  private static final byte[] RESPONSE =
+          "{\"body\":{\"assistantResponse\":\"Your order shipped yesterday.\"}}".getBytes(StandardCharsets.UTF_8);
+
+  @Param({"bare", "pooled"})
+  public String client;
+
+  private HttpServer backend;
+  private ExecutorService backendThreads;
+  private CloseableHttpClient httpClient;
+  private VoiceCallApiClient apiClient;
+
+  @Setup
+  public void setUp() throws IOException {
+    backendThreads = Executors.newFixedThreadPool(32);
+    backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+    backend.createContext("/voicecall", VoiceCallClientBenchmark::answer);
+    backend.setExecutor(backendThreads);
+    backend.start();
+
+    RestTemplate restTemplate;
+    if ("pooled".equals(client)) {
+      AppConfig config = new AppConfig();
+      httpClient = config.voiceCallHttpClient(200, 50, 2000, 10000, 1000, 30000, 30000);
+      restTemplate = config.restTemplate(httpClient);
+    } else {
+      restTemplate = new RestTemplate();
+    }
+    String url = "http://127.0.0.1:" + backend.getAddress().getPort() + "/voicecall";
+    apiClient = new VoiceCallApiClient(restTemplate, url, new SimpleMeterRegistry());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (httpClient != null) {
+      httpClient.close();
+    }
+    backend.stop(0);
+    backendThreads.shutdownNow();
+  }
+
+  @Benchmark
+  public String getUserQuery() {
+    return apiClient.callVoiceApi("where is my order");
+  }
+
+  private static void answer(HttpExchange exchange) throws IOException {
+    try {
+      Thread.sleep(BACKEND_WORK_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try (InputStream body = exchange.getRequestBody()) {
+      byte[] buffer = new byte[1024];
+      while (body.read(buffer) != -1) {
+        // Drain the request so the connection can be reused
+      }
+    }
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, RESPONSE.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(RESPONSE);
+    }
+  }
+}
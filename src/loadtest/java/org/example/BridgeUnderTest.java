@@ -0,0 +1,136 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The bridge being measured: either a child JVM started on the harness's classpath and wired to the fake
+ * endpoints, or an already running instance. Resource figures come from its {@code /actuator/prometheus}.
+ */
+final class BridgeUnderTest {
+  private final String baseUrl;
+  private final Process process;
+
+  private BridgeUnderTest(String baseUrl, Process process) {
+    this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    this.process = process;
+  }
+
+  static BridgeUnderTest external(String baseUrl) {
+    return new BridgeUnderTest(baseUrl, null);
+  }
+
+  static BridgeUnderTest launch(LoadHarness.Options options, String realtimeUrl, String backendUrl) throws IOException {
+    int port = LoadHarness.freePort();
+    List<String> command = new ArrayList<>();
+    command.add(options.java);
+    command.addAll(options.jvmArgs);
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(Main.class.getName());
+    command.add("--server.port=" + port);
+    command.add("--openai.realtime.url=" + realtimeUrl);
+    command.add("--openai.realtime.api-key=loadtest");
+    command.add("--voicecall.api.url=" + backendUrl);
+    command.add("--management.endpoints.web.exposure.include=health,prometheus");
+    command.add("--logging.level.org.example=WARN");
+    command.addAll(options.bridgeArgs);
+
+    File log = new File(options.report.getAbsoluteFile().getParentFile(), "loadtest-bridge.log");
+    log.getParentFile().mkdirs();
+    System.out.println("Starting bridge on port " + port + " " + options.jvmArgs + " " + options.bridgeArgs
+            + ", log in " + log);
+    Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log)
+            .start();
+    return new BridgeUnderTest("http://127.0.0.1:" + port, process);
+  }
+
+  URI mediaStreamUri() {
+    return URI.create(baseUrl.replaceFirst("^http", "ws") + "/media-stream");
+  }
+
+  void awaitReady(long timeoutMs) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    while (System.currentTimeMillis() < deadline) {
+      if (process != null && !process.isAlive()) {
+        throw new IllegalStateException("Bridge exited with status " + process.exitValue());
+      }
+      try {
+        if (get("/actuator/health").contains("\"UP\"")) {
+          return;
+        }
+      } catch (IOException e) {
+        // not listening yet
+      }
+      Thread.sleep(250);
+    }
+    throw new IllegalStateException("Bridge at " + baseUrl + " was not ready after " + timeoutMs + " ms");
+  }
+
+  /**
+   * Current process CPU (0..1, or -1 when unknown), heap in use, live threads and active calls.
+   */
+  Sample sample() {
+    Sample sample = new Sample();
+    String metrics;
+    try {
+      metrics = get("/actuator/prometheus");
+    } catch (IOException e) {
+      return sample;
+    }
+    for (String line : metrics.split("\n")) {
+      if (line.startsWith("process_cpu_usage")) {
+        sample.cpu = value(line);
+      } else if (line.startsWith("jvm_memory_used_bytes") && line.contains("area=\"heap\"")) {
+        sample.heapBytes += (long) value(line);
+      } else if (line.startsWith("jvm_threads_live_threads")) {
+        sample.threads = (long) value(line);
+      } else if (line.startsWith("bridge_calls_active")) {
+        sample.activeCalls = (long) value(line);
+      }
+    }
+    return sample;
+  }
+
+  void stop() {
+    if (process != null && process.isAlive()) {
+      process.destroy();
+    }
+  }
+
+  private String get(String path) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+    connection.setConnectTimeout(2000);
+    connection.setReadTimeout(5000);
+    StringBuilder body = new StringBuilder();
+    try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        body.append(line).append('\n');
+      }
+    }
+    return body.toString();
+  }
+
+  private static double value(String line) {
+    return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+  }
+
+  static final class Sample {
+    double cpu = -1;
+    long heapBytes;
+    long threads;
+    long activeCalls;
+  }
+}
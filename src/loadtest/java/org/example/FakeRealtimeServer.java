@@ -0,0 +1,227 @@
+package org.example;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+/**
+ * Stand-in for the OpenAI realtime API. It acknowledges {@code session.update}, detects the end of each
+ * caller utterance from the appended μ-law, and answers with a stream of {@code response.audio.delta}
+ * events after a configurable delay. Every {@code toolEvery}-th turn first asks for a
+ * {@code get_user_query} call and only starts speaking once the bridge sends {@code response.create}.
+ * <p>
+ * Reply audio is filled with {@link #PLAIN_REPLY_BYTE} or {@link #TOOL_REPLY_BYTE} so the simulated caller
+ * can tell which kind of turn it is hearing.
+ */
+class FakeRealtimeServer extends WebSocketServer {
+  static final byte PLAIN_REPLY_BYTE = 0x2A;
+  static final byte TOOL_REPLY_BYTE = 0x55;
+  private static final int FRAME_BYTES = 160;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final ScheduledExecutorService scheduler;
+  private final LoadHarness.Options options;
+  private final String plainDelta;
+  private final String toolDelta;
+  private final AtomicLong ids = new AtomicLong();
+  private final AtomicLong toolCalls = new AtomicLong();
+
+  FakeRealtimeServer(int port, ScheduledExecutorService scheduler, LoadHarness.Options options) {
+    super(new InetSocketAddress("127.0.0.1", port));
+    this.scheduler = scheduler;
+    this.options = options;
+    int deltaBytes = options.deltaMs * 8;
+    this.plainDelta = filledBase64(deltaBytes, PLAIN_REPLY_BYTE);
+    this.toolDelta = filledBase64(deltaBytes, TOOL_REPLY_BYTE);
+    setReuseAddr(true);
+  }
+
+  long getToolCalls() {
+    return toolCalls.get();
+  }
+
+  @Override
+  public void onStart() {
+    setConnectionLostTimeout(0);
+  }
+
+  @Override
+  public void onOpen(WebSocket conn, ClientHandshake handshake) {
+    conn.setAttachment(new Session());
+    conn.send("{\"type\":\"session.created\",\"event_id\":\"" + nextId("event") + "\"}");
+  }
+
+  @Override
+  public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+    Session session = conn.getAttachment();
+    if (session != null) {
+      session.stopReply();
+    }
+  }
+
+  @Override
+  public void onMessage(WebSocket conn, String message) {
+    Session session = conn.getAttachment();
+    JsonNode event;
+    try {
+      event = mapper.readTree(message);
+    } catch (Exception e) {
+      conn.send("{\"type\":\"error\",\"error\":{\"message\":\"invalid json\"}}");
+      return;
+    }
+    String type = event.path("type").asText();
+    if ("input_audio_buffer.append".equals(type)) {
+      onAudio(conn, session, event.path("audio").asText());
+    } else if ("session.update".equals(type)) {
+      scheduler.schedule(() -> send(conn, "{\"type\":\"session.updated\",\"event_id\":\"" + nextId("event") + "\"}"),
+              jittered(options.sessionDelayMs, 0), TimeUnit.MILLISECONDS);
+    } else if ("response.create".equals(type)) {
+      synchronized (session) {
+        if (session.awaitingToolResult) {
+          session.awaitingToolResult = false;
+          startReply(conn, session, true);
+        }
+      }
+    } else if ("response.cancel".equals(type)) {
+      session.stopReply();
+    }
+  }
+
+  @Override
+  public void onError(WebSocket conn, Exception ex) {
+    if (conn == null) {
+      System.err.println("Fake realtime server failed: " + ex);
+    }
+  }
+
+  private void onAudio(WebSocket conn, Session session, String audio) {
+    byte[] bytes = Base64.getDecoder().decode(audio);
+    boolean speech = hasSpeech(bytes, Math.max(0, bytes.length - FRAME_BYTES));
+    synchronized (session) {
+      if (speech && !session.speaking) {
+        session.speaking = true;
+        session.stopReply();
+        send(conn, "{\"type\":\"input_audio_buffer.speech_started\",\"event_id\":\"" + nextId("event") + "\"}");
+      } else if (!speech && session.speaking) {
+        session.speaking = false;
+        session.turns++;
+        send(conn, "{\"type\":\"input_audio_buffer.speech_stopped\",\"event_id\":\"" + nextId("event") + "\"}");
+        boolean toolTurn = options.toolEvery > 0 && session.turns % options.toolEvery == 0;
+        long delay = jittered(options.responseDelayMs, options.responseJitterMs);
+        session.pending = scheduler.schedule(() -> respond(conn, session, toolTurn), delay, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  private void respond(WebSocket conn, Session session, boolean toolTurn) {
+    synchronized (session) {
+      if (!toolTurn) {
+        startReply(conn, session, false);
+        return;
+      }
+      String responseId = nextId("resp");
+      String query = options.cacheableToolQuery
+              ? "what are your store hours"
+              : "where is my order " + (40000 + session.turns);
+      send(conn, "{\"type\":\"response.created\",\"event_id\":\"" + nextId("event") + "\",\"response\":{\"id\":\""
+              + responseId + "\"}}");
+      send(conn, "{\"type\":\"response.function_call_arguments.done\",\"event_id\":\"" + nextId("event")
+              + "\",\"response_id\":\"" + responseId + "\",\"item_id\":\"" + nextId("item")
+              + "\",\"output_index\":0,\"call_id\":\"" + nextId("call")
+              + "\",\"name\":\"get_user_query\",\"arguments\":\"{\\\"inference\\\":\\\"" + query + "\\\"}\"}");
+      send(conn, "{\"type\":\"response.done\",\"event_id\":\"" + nextId("event") + "\",\"response\":{\"id\":\""
+              + responseId + "\",\"status\":\"completed\"}}");
+      session.awaitingToolResult = true;
+      toolCalls.incrementAndGet();
+    }
+  }
+
+  /**
+   * Streams {@code replyMs} of audio in {@code deltaMs} chunks, one every {@code deltaIntervalMs}, which is
+   * faster than real time just like the real service.
+   */
+  private void startReply(WebSocket conn, Session session, boolean afterTool) {
+    String responseId = nextId("resp");
+    String itemId = nextId("item");
+    String prefix = "{\"type\":\"response.audio.delta\",\"event_id\":\"evt\",\"response_id\":\"" + responseId
+            + "\",\"item_id\":\"" + itemId + "\",\"output_index\":0,\"content_index\":0,\"delta\":\"";
+    String delta = prefix + (afterTool ? toolDelta : plainDelta) + "\"}";
+    int chunks = Math.max(1, options.replyMs / options.deltaMs);
+    send(conn, "{\"type\":\"response.created\",\"event_id\":\"" + nextId("event") + "\",\"response\":{\"id\":\""
+            + responseId + "\"}}");
+    int[] sent = {0};
+    session.pending = scheduler.scheduleAtFixedRate(() -> {
+      synchronized (session) {
+        if (sent[0] < chunks) {
+          send(conn, delta);
+          sent[0]++;
+          return;
+        }
+        send(conn, "{\"type\":\"response.audio.done\",\"event_id\":\"" + nextId("event") + "\",\"response_id\":\""
+                + responseId + "\",\"item_id\":\"" + itemId + "\"}");
+        send(conn, "{\"type\":\"response.done\",\"event_id\":\"" + nextId("event") + "\",\"response\":{\"id\":\""
+                + responseId + "\",\"status\":\"completed\"}}");
+        session.stopReply();
+      }
+    }, 0, options.deltaIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  private static void send(WebSocket conn, String message) {
+    if (conn.isOpen()) {
+      conn.send(message);
+    }
+  }
+
+  private String nextId(String prefix) {
+    return prefix + "_" + ids.incrementAndGet();
+  }
+
+  private static long jittered(long base, long jitter) {
+    return jitter <= 0 ? base : base + ThreadLocalRandom.current().nextLong(jitter + 1);
+  }
+
+  /**
+   * μ-law silence encodes as 0xFF/0x7F and their one-step neighbours; anything else counts as speech.
+   */
+  private static boolean hasSpeech(byte[] ulaw, int from) {
+    for (int i = from; i < ulaw.length; i++) {
+      int b = ulaw[i] & 0x7F;
+      if (b < 0x7E) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String filledBase64(int length, byte value) {
+    byte[] bytes = new byte[length];
+    Arrays.fill(bytes, value);
+    return Base64.getEncoder().encodeToString(bytes);
+  }
+
+  private static final class Session {
+    boolean speaking;
+    boolean awaitingToolResult;
+    int turns;
+    ScheduledFuture<?> pending;
+
+    synchronized void stopReply() {
+      if (pending != null) {
+        pending.cancel(false);
+        pending = null;
+      }
+      awaitingToolResult = false;
+    }
+  }
+}
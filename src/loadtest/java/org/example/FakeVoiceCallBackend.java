@@ -0,0 +1,76 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stand-in for the voicecall backend behind {@code get_user_query}. Answers every POST with a fixed
+ * {@code assistantResponse} after {@code toolDelayMs} plus up to {@code toolJitterMs} of random delay.
+ */
+class FakeVoiceCallBackend {
+  static final String PATH = "/voicecall";
+  private static final byte[] RESPONSE =
+          "{\"body\":{\"assistantResponse\":\"Your order left the warehouse this morning.\"}}".getBytes(StandardCharsets.UTF_8);
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final LoadHarness.Options options;
+  private final AtomicLong requests = new AtomicLong();
+
+  FakeVoiceCallBackend(int port, LoadHarness.Options options) throws IOException {
+    this.options = options;
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+    this.executor = Executors.newFixedThreadPool(options.backendThreads);
+    server.setExecutor(executor);
+    server.createContext(PATH, this::handle);
+  }
+
+  void start() {
+    server.start();
+  }
+
+  void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  long getRequests() {
+    return requests.get();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    try (InputStream body = exchange.getRequestBody()) {
+      byte[] buffer = new byte[1024];
+      while (body.read(buffer) >= 0) {
+        // drain the request so the connection can be kept alive
+      }
+    }
+    long delay = options.toolDelayMs
+            + (options.toolJitterMs > 0 ? ThreadLocalRandom.current().nextLong(options.toolJitterMs + 1) : 0);
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, RESPONSE.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(RESPONSE);
+    }
+  }
+}
@@ -0,0 +1,345 @@
+package org.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the bridge with simulated calls against local stand-ins for Twilio, the OpenAI realtime API and
+ * the voicecall backend, and reports how first-audio latency, CPU, heap and threads change as the number of
+ * concurrent calls grows.
+ * <p>
+ * The bridge runs in its own JVM so its resource figures are not mixed with the harness's. Every step opens
+ * its calls evenly over {@code --ramp-ms}, measures for {@code --step-seconds}, hangs up and waits for the
+ * bridge to settle before the next step. Options the harness does not know and that look like Spring
+ * properties ({@code --openai.pool.size=0}) are passed to the bridge, so two runs that differ only in a
+ * bridge setting can be compared directly.
+ * <p>
+ * Usage: {@code LoadHarness [--calls=5,10,25,50] [--step-seconds=30] [--tool-every=3] [--java=<java binary>]
+ * [--jvm-args=-Xmx512m,-XX:+UseG1GC] [--target=http://host:port] [--<bridge property>=<value> ...]}
+ */
+public class LoadHarness {
+
+  public static void main(String[] args) throws Exception {
+    Options options = Options.parse(args);
+    ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(options.callerThreads, daemon("load-tick"));
+    FakeRealtimeServer realtime = new FakeRealtimeServer(freePort(), scheduler, options);
+    FakeVoiceCallBackend backend = new FakeVoiceCallBackend(freePort(), options);
+    realtime.start();
+    backend.start();
+
+    String realtimeUrl = "ws://127.0.0.1:" + realtime.getPort() + "/openai/realtime";
+    String backendUrl = "http://127.0.0.1:" + backend.getPort() + FakeVoiceCallBackend.PATH;
+    BridgeUnderTest bridge = options.target != null
+            ? BridgeUnderTest.external(options.target)
+            : BridgeUnderTest.launch(options, realtimeUrl, backendUrl);
+    Runtime.getRuntime().addShutdownHook(new Thread(bridge::stop));
+    if (options.target != null) {
+      System.out.println("Using the bridge at " + options.target + "; start it with --openai.realtime.url=" + realtimeUrl
+              + " --openai.realtime.api-key=loadtest --voicecall.api.url=" + backendUrl);
+    }
+
+    List<String[]> rows = new ArrayList<>();
+    try {
+      bridge.awaitReady(TimeUnit.SECONDS.toMillis(90));
+      System.out.println(String.format("%6s %6s %5s %6s %6s %7s %7s %7s %7s %7s %7s %6s %6s %7s %7s %6s",
+              "calls", "conn", "fail", "turns", "missed", "p50 ms", "p90 ms", "p99 ms", "max ms", "tool50", "tool99",
+              "cpu%", "cpuMx", "heapMB", "threads", "load%"));
+      for (int calls : options.calls) {
+        StepStats stats = runStep(calls, options, bridge, scheduler);
+        String[] row = stats.row(calls);
+        rows.add(row);
+        System.out.println(String.format("%6s %6s %5s %6s %6s %7s %7s %7s %7s %7s %7s %6s %6s %7s %7s %6s", (Object[]) row));
+      }
+    } finally {
+      bridge.stop();
+      realtime.stop(1000);
+      backend.stop();
+      scheduler.shutdownNow();
+    }
+    writeReport(options.report, rows);
+    System.out.println("Report written to " + options.report + " (fake backend served " + backend.getRequests()
+            + " tool calls of " + realtime.getToolCalls() + " requested)");
+  }
+
+  private static StepStats runStep(int calls, Options options, BridgeUnderTest bridge,
+                                   ScheduledExecutorService scheduler) throws InterruptedException {
+    StepStats stats = new StepStats();
+    List<SimulatedTwilioCall> active = new ArrayList<>(calls);
+    URI mediaStream = bridge.mediaStreamUri();
+    long spacingMs = calls > 1 ? options.rampMs / (calls - 1) : 0;
+    for (int i = 0; i < calls; i++) {
+      SimulatedTwilioCall call = new SimulatedTwilioCall(mediaStream, i, options.profile, options, stats);
+      active.add(call);
+      call.start(scheduler);
+      if (spacingMs > 0) {
+        Thread.sleep(spacingMs);
+      }
+    }
+
+    // Only turns that start once every call is up are measured.
+    Thread.sleep(options.leadMs);
+    stats.startMeasuring();
+    long harnessCpuStart = harnessCpuNanos();
+    long measureStart = System.nanoTime();
+    long end = measureStart + TimeUnit.SECONDS.toNanos(options.stepSeconds);
+    while (System.nanoTime() < end) {
+      stats.sample(bridge.sample());
+      Thread.sleep(1000);
+    }
+    stats.stopMeasuring(harnessCpuNanos() - harnessCpuStart, System.nanoTime() - measureStart);
+
+    for (SimulatedTwilioCall call : active) {
+      call.stop();
+    }
+    long settleEnd = System.currentTimeMillis() + options.settleMs;
+    while (System.currentTimeMillis() < settleEnd && bridge.sample().activeCalls > 0) {
+      Thread.sleep(200);
+    }
+    return stats;
+  }
+
+  private static long harnessCpuNanos() {
+    java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+    }
+    return 0;
+  }
+
+  private static void writeReport(File report, List<String[]> rows) throws IOException {
+    File parent = report.getAbsoluteFile().getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    try (PrintWriter out = new PrintWriter(report, "UTF-8")) {
+      out.println("calls,connected,failed,turns,missed,first_audio_p50_ms,first_audio_p90_ms,first_audio_p99_ms,"
+              + "first_audio_max_ms,tool_first_audio_p50_ms,tool_first_audio_p99_ms,bridge_cpu_avg_pct,"
+              + "bridge_cpu_max_pct,bridge_heap_max_mb,bridge_threads_max,harness_cpu_pct");
+      for (String[] row : rows) {
+        out.println(String.join(",", row));
+      }
+    }
+  }
+
+  static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static ThreadFactory daemon(String name) {
+    AtomicLong count = new AtomicLong();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Harness settings, all given as {@code --name=value}.
+   */
+  static final class Options {
+    int[] calls = {5, 10, 25, 50};
+    int stepSeconds = 30;
+    int rampMs = 5000;
+    int settleMs = 5000;
+    int leadMs = 1000;
+    int utteranceMs = 1200;
+    int listenMs = 4000;
+    int sessionDelayMs = 50;
+    int responseDelayMs = 300;
+    int responseJitterMs = 100;
+    int replyMs = 2000;
+    int deltaMs = 100;
+    int deltaIntervalMs = 25;
+    int toolEvery = 3;
+    int toolDelayMs = 150;
+    int toolJitterMs = 100;
+    boolean cacheableToolQuery;
+    int backendThreads = 200;
+    int callerThreads = 4;
+    String profile = "shopping";
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    List<String> jvmArgs = new ArrayList<>();
+    List<String> bridgeArgs = new ArrayList<>();
+    String target;
+    File report = new File("target/loadtest-report.csv");
+
+    static Options parse(String[] args) {
+      Options options = new Options();
+      for (String arg : args) {
+        if (arg.trim().isEmpty()) {
+          continue;
+        }
+        if (!arg.startsWith("--") || !arg.contains("=")) {
+          throw new IllegalArgumentException("Expected --name=value but got " + arg);
+        }
+        String name = arg.substring(2, arg.indexOf('='));
+        String value = arg.substring(arg.indexOf('=') + 1);
+        switch (name) {
+          case "calls": options.calls = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray(); break;
+          case "step-seconds": options.stepSeconds = Integer.parseInt(value); break;
+          case "ramp-ms": options.rampMs = Integer.parseInt(value); break;
+          case "settle-ms": options.settleMs = Integer.parseInt(value); break;
+          case "lead-ms": options.leadMs = Integer.parseInt(value); break;
+          case "utterance-ms": options.utteranceMs = Integer.parseInt(value); break;
+          case "listen-ms": options.listenMs = Integer.parseInt(value); break;
+          case "session-delay-ms": options.sessionDelayMs = Integer.parseInt(value); break;
+          case "response-delay-ms": options.responseDelayMs = Integer.parseInt(value); break;
+          case "response-jitter-ms": options.responseJitterMs = Integer.parseInt(value); break;
+          case "reply-ms": options.replyMs = Integer.parseInt(value); break;
+          case "delta-ms": options.deltaMs = Integer.parseInt(value); break;
+          case "delta-interval-ms": options.deltaIntervalMs = Integer.parseInt(value); break;
+          case "tool-every": options.toolEvery = Integer.parseInt(value); break;
+          case "tool-delay-ms": options.toolDelayMs = Integer.parseInt(value); break;
+          case "tool-jitter-ms": options.toolJitterMs = Integer.parseInt(value); break;
+          case "cacheable-tool-query": options.cacheableToolQuery = Boolean.parseBoolean(value); break;
+          case "backend-threads": options.backendThreads = Integer.parseInt(value); break;
+          case "caller-threads": options.callerThreads = Integer.parseInt(value); break;
+          case "profile": options.profile = value; break;
+          case "java": options.java = value; break;
+          case "jvm-args": options.jvmArgs.addAll(Arrays.asList(value.split(","))); break;
+          case "target": options.target = value; break;
+          case "report": options.report = new File(value); break;
+          default:
+            if (!name.contains(".")) {
+              throw new IllegalArgumentException("Unknown option --" + name);
+            }
+            options.bridgeArgs.add(arg);
+        }
+      }
+      return options;
+    }
+  }
+
+  /**
+   * What one step measured, filled in concurrently by its calls.
+   */
+  static final class StepStats {
+    private final AtomicLong connected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong turns = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+    private final AtomicLong media = new AtomicLong();
+    private final AtomicLong clears = new AtomicLong();
+    private final Samples connectMillis = new Samples();
+    private final Samples firstAudioMillis = new Samples();
+    private final Samples toolFirstAudioMillis = new Samples();
+    private volatile boolean measuring;
+    private double cpuSum;
+    private double cpuMax;
+    private int cpuSamples;
+    private long heapMax;
+    private long threadsMax;
+    private double harnessCpu;
+
+    void connected(long nanos) {
+      connected.incrementAndGet();
+      connectMillis.add(nanos / 1e6);
+    }
+
+    void error() {
+      failed.incrementAndGet();
+    }
+
+    void droppedByBridge() {
+      failed.incrementAndGet();
+    }
+
+    void turn() {
+      turns.incrementAndGet();
+    }
+
+    void missedReply() {
+      missed.incrementAndGet();
+    }
+
+    void mediaReceived() {
+      media.incrementAndGet();
+    }
+
+    void cleared() {
+      clears.incrementAndGet();
+    }
+
+    void firstAudio(long nanos, boolean toolTurn) {
+      (toolTurn ? toolFirstAudioMillis : firstAudioMillis).add(nanos / 1e6);
+    }
+
+    boolean isMeasuring() {
+      return measuring;
+    }
+
+    void startMeasuring() {
+      measuring = true;
+    }
+
+    void stopMeasuring(long harnessCpuNanos, long wallNanos) {
+      measuring = false;
+      harnessCpu = 100.0 * harnessCpuNanos / wallNanos / Runtime.getRuntime().availableProcessors();
+    }
+
+    synchronized void sample(BridgeUnderTest.Sample sample) {
+      if (sample.cpu >= 0) {
+        cpuSum += sample.cpu;
+        cpuMax = Math.max(cpuMax, sample.cpu);
+        cpuSamples++;
+      }
+      heapMax = Math.max(heapMax, sample.heapBytes);
+      threadsMax = Math.max(threadsMax, sample.threads);
+    }
+
+    synchronized String[] row(int calls) {
+      return new String[] {
+              String.valueOf(calls), String.valueOf(connected.get()), String.valueOf(failed.get()),
+              String.valueOf(turns.get()), String.valueOf(missed.get()),
+              format(firstAudioMillis.percentile(50)), format(firstAudioMillis.percentile(90)),
+              format(firstAudioMillis.percentile(99)), format(firstAudioMillis.percentile(100)),
+              format(toolFirstAudioMillis.percentile(50)), format(toolFirstAudioMillis.percentile(99)),
+              format(cpuSamples == 0 ? Double.NaN : 100 * cpuSum / cpuSamples), format(100 * cpuMax),
+              String.valueOf(heapMax / (1024 * 1024)), String.valueOf(threadsMax), format(harnessCpu)};
+    }
+
+    private static String format(double value) {
+      return Double.isNaN(value) ? "-" : String.format("%.1f", value);
+    }
+  }
+
+  /**
+   * Latency samples in milliseconds; percentiles are exact, by sorting.
+   */
+  static final class Samples {
+    private double[] values = new double[256];
+    private int size;
+
+    synchronized void add(double value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    synchronized double percentile(double percentile) {
+      if (size == 0) {
+        return Double.NaN;
+      }
+      double[] sorted = Arrays.copyOf(values, size);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile / 100 * size) - 1;
+      return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+  }
+}
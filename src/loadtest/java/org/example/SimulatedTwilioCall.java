@@ -0,0 +1,231 @@
+package org.example;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+/**
+ * One simulated Twilio media stream. After the {@code connected} and {@code start} events it sends a
+ * 20 ms μ-law frame on every tick of the shared scheduler: {@code utteranceMs} of a 400 Hz tone, then
+ * {@code listenMs} of silence while it waits for the reply, and so on until it is stopped.
+ * <p>
+ * First-audio latency is the time from the first silent frame after an utterance to the first media event
+ * that comes back. Marks are echoed once the audio queued before them would have finished playing, and a
+ * {@code clear} echoes all pending marks at once, the way Twilio does.
+ */
+class SimulatedTwilioCall extends WebSocketClient {
+  static final int FRAME_MS = 20;
+  private static final String SPEECH_FRAME = Base64.getEncoder().encodeToString(toneFrame());
+  private static final String SILENCE_FRAME = Base64.getEncoder().encodeToString(silenceFrame());
+  private static final char TOOL_REPLY_FIRST_CHAR =
+          Base64.getEncoder().encodeToString(new byte[] {FakeRealtimeServer.TOOL_REPLY_BYTE}).charAt(0);
+
+  private final String streamSid;
+  private final String profile;
+  private final LoadHarness.Options options;
+  private final LoadHarness.StepStats stats;
+  private final ArrayDeque<PendingMark> marks = new ArrayDeque<>();
+  private final long createdAtNanos = System.nanoTime();
+  private ScheduledFuture<?> ticker;
+  private int sequence;
+  private int framesUntilSpeech;
+  private int speechFramesLeft;
+  private int listenFramesLeft;
+  private long turnEndNanos;
+  private boolean awaitingReply;
+  private long playoutEndNanos;
+  private volatile boolean stopped;
+
+  SimulatedTwilioCall(URI bridge, int index, String profile, LoadHarness.Options options, LoadHarness.StepStats stats) {
+    super(bridge);
+    this.streamSid = String.format("MZ%032x", index);
+    this.profile = profile;
+    this.options = options;
+    this.stats = stats;
+    this.framesUntilSpeech = options.leadMs / FRAME_MS;
+    setConnectionLostTimeout(0);
+  }
+
+  void start(ScheduledExecutorService scheduler) {
+    connect();
+    ticker = scheduler.scheduleAtFixedRate(this::tick, FRAME_MS, FRAME_MS, TimeUnit.MILLISECONDS);
+  }
+
+  void stop() {
+    stopped = true;
+    if (ticker != null) {
+      ticker.cancel(false);
+    }
+    if (isOpen()) {
+      send("{\"event\":\"stop\",\"sequenceNumber\":\"" + nextSequence() + "\",\"streamSid\":\"" + streamSid
+              + "\",\"stop\":{\"accountSid\":\"ACload\",\"callSid\":\"CA" + streamSid + "\"}}");
+      close();
+    }
+  }
+
+  @Override
+  public void onOpen(ServerHandshake handshake) {
+    stats.connected(System.nanoTime() - createdAtNanos);
+    send("{\"event\":\"connected\",\"protocol\":\"Call\",\"version\":\"1.0.0\"}");
+    send("{\"event\":\"start\",\"sequenceNumber\":\"" + nextSequence() + "\",\"start\":{\"accountSid\":\"ACload\","
+            + "\"streamSid\":\"" + streamSid + "\",\"callSid\":\"CA" + streamSid + "\",\"tracks\":[\"inbound\"],"
+            + "\"mediaFormat\":{\"encoding\":\"audio/x-mulaw\",\"sampleRate\":8000,\"channels\":1},"
+            + "\"customParameters\":{\"" + TwilloResource.PROFILE_PARAMETER + "\":\"" + profile + "\"}},"
+            + "\"streamSid\":\"" + streamSid + "\"}");
+  }
+
+  @Override
+  public void onMessage(String message) {
+    long now = System.nanoTime();
+    if (message.contains("\"event\":\"media\"")) {
+      String payload = field(message, "\"payload\":\"");
+      synchronized (this) {
+        if (awaitingReply && turnEndNanos != 0) {
+          awaitingReply = false;
+          boolean toolTurn = payload != null && !payload.isEmpty() && payload.charAt(0) == TOOL_REPLY_FIRST_CHAR;
+          stats.firstAudio(now - turnEndNanos, toolTurn);
+        }
+        long playMs = payload == null ? 0 : payload.length() * 3L / 4 / 8;
+        playoutEndNanos = Math.max(playoutEndNanos, now) + TimeUnit.MILLISECONDS.toNanos(playMs);
+      }
+      stats.mediaReceived();
+    } else if (message.contains("\"event\":\"mark\"")) {
+      String name = field(message, "\"name\":\"");
+      synchronized (this) {
+        marks.add(new PendingMark(name, Math.max(playoutEndNanos, now)));
+      }
+    } else if (message.contains("\"event\":\"clear\"")) {
+      synchronized (this) {
+        playoutEndNanos = now;
+        releaseMarks(Long.MAX_VALUE);
+      }
+      stats.cleared();
+    }
+  }
+
+  @Override
+  public void onClose(int code, String reason, boolean remote) {
+    if (remote && !stopped) {
+      stats.droppedByBridge();
+    }
+  }
+
+  @Override
+  public void onError(Exception ex) {
+    stats.error();
+  }
+
+  private void tick() {
+    if (!isOpen()) {
+      return;
+    }
+    synchronized (this) {
+      releaseMarks(System.nanoTime());
+      boolean speech;
+      if (framesUntilSpeech > 0) {
+        framesUntilSpeech--;
+        speech = false;
+      } else if (speechFramesLeft == 0 && listenFramesLeft == 0) {
+        if (awaitingReply) {
+          stats.missedReply();
+        }
+        speechFramesLeft = options.utteranceMs / FRAME_MS;
+        listenFramesLeft = options.listenMs / FRAME_MS;
+        awaitingReply = false;
+        turnEndNanos = 0;
+        speech = true;
+        speechFramesLeft--;
+      } else if (speechFramesLeft > 0) {
+        speechFramesLeft--;
+        speech = true;
+      } else {
+        if (!awaitingReply && turnEndNanos == 0) {
+          turnEndNanos = System.nanoTime();
+          awaitingReply = stats.isMeasuring();
+          if (awaitingReply) {
+            stats.turn();
+          }
+        }
+        listenFramesLeft--;
+        speech = false;
+      }
+      sendMedia(speech ? SPEECH_FRAME : SILENCE_FRAME);
+    }
+  }
+
+  private void sendMedia(String payload) {
+    int seq = nextSequence();
+    send("{\"event\":\"media\",\"sequenceNumber\":\"" + seq + "\",\"media\":{\"track\":\"inbound\",\"chunk\":\""
+            + seq + "\",\"timestamp\":\"" + (seq * FRAME_MS) + "\",\"payload\":\"" + payload + "\"},\"streamSid\":\""
+            + streamSid + "\"}");
+  }
+
+  private void releaseMarks(long nowNanos) {
+    while (!marks.isEmpty() && marks.peek().dueNanos <= nowNanos) {
+      PendingMark mark = marks.poll();
+      if (isOpen()) {
+        send("{\"event\":\"mark\",\"sequenceNumber\":\"" + nextSequence() + "\",\"streamSid\":\"" + streamSid
+                + "\",\"mark\":{\"name\":\"" + mark.name + "\"}}");
+      }
+    }
+  }
+
+  private synchronized int nextSequence() {
+    return ++sequence;
+  }
+
+  private static String field(String message, String key) {
+    int start = message.indexOf(key);
+    if (start < 0) {
+      return null;
+    }
+    start += key.length();
+    int end = message.indexOf('"', start);
+    return end < 0 ? null : message.substring(start, end);
+  }
+
+  /**
+   * 20 ms of a 400 Hz tone at about -12 dBFS; a whole number of cycles, so frames join without clicks.
+   */
+  private static byte[] toneFrame() {
+    byte[] frame = new byte[8 * FRAME_MS];
+    for (int i = 0; i < frame.length; i++) {
+      frame[i] = linearToUlaw((int) (8000 * Math.sin(2 * Math.PI * 400 * i / 8000.0)));
+    }
+    return frame;
+  }
+
+  private static byte[] silenceFrame() {
+    byte[] frame = new byte[8 * FRAME_MS];
+    Arrays.fill(frame, (byte) 0xFF);
+    return frame;
+  }
+
+  private static byte linearToUlaw(int sample) {
+    int sign = sample < 0 ? 0x80 : 0;
+    int magnitude = Math.min(Math.abs(sample), 32635) + 0x84;
+    int exponent = 7;
+    for (int mask = 0x4000; (magnitude & mask) == 0 && exponent > 0; mask >>= 1) {
+      exponent--;
+    }
+    int mantissa = (magnitude >> (exponent + 3)) & 0x0F;
+    return (byte) ~(sign | (exponent << 4) | mantissa);
+  }
+
+  private static final class PendingMark {
+    final String name;
+    final long dueNanos;
+
+    PendingMark(String name, long dueNanos) {
+      this.name = name;
+      this.dueNanos = dueNanos;
+    }
+  }
+}
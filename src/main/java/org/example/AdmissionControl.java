@@ -0,0 +1,214 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the calls this node carries at {@code bridge.admission.max-calls} (0 means no cap), so that past
+ * saturation a few calls are turned away instead of every call's audio degrading together. A call routed
+ * to this node reserves a slot when {@code /incoming-call} answers, so calls whose media stream has not
+ * connected yet count toward the cap; its stream takes over the reservation in
+ * {@code afterConnectionEstablished} and gives the slot back when it closes. A reservation no stream claims
+ * within {@code bridge.admission.reservation-ms} lapses.
+ * <p>
+ * While draining no new call is admitted and calls in progress carry on. Shutdown drains first and waits up
+ * to {@code bridge.admission.drain-timeout-ms} for the calls to end before the web server stops.
+ */
+@Component
+@Slf4j
+public class AdmissionControl implements SmartLifecycle {
+  static final String CAPACITY = "capacity";
+  static final String DRAINING = "draining";
+
+  private final int maxCalls;
+  private final long drainTimeoutMs;
+  private final long reservationNanos;
+  private final AtomicInteger admitted = new AtomicInteger();
+  // Admitted streams plus live reservations, the number the cap applies to
+  private final AtomicInteger taken = new AtomicInteger();
+  // Expiry of each reservation, oldest first
+  private final ConcurrentLinkedQueue<Long> reservations = new ConcurrentLinkedQueue<>();
+  private final AtomicLong webhookRejectedCapacity = new AtomicLong();
+  private final AtomicLong webhookRejectedDraining = new AtomicLong();
+  private final AtomicLong streamRejectedCapacity = new AtomicLong();
+  private final AtomicLong streamRejectedDraining = new AtomicLong();
+  private volatile boolean draining;
+  private volatile boolean running;
+
+  public AdmissionControl(@Value("${bridge.admission.max-calls:0}") int maxCalls,
+                          @Value("${bridge.admission.drain-timeout-ms:300000}") long drainTimeoutMs,
+                          @Value("${bridge.admission.reservation-ms:10000}") long reservationMs) {
+    this.maxCalls = maxCalls;
+    this.drainTimeoutMs = drainTimeoutMs;
+    this.reservationNanos = TimeUnit.MILLISECONDS.toNanos(reservationMs);
+  }
+
+  /**
+   * Reserves a slot for a call about to be told to stream to this node. Returns {@code false} when the
+   * node is draining or full.
+   */
+  boolean tryReserve() {
+    if (draining || !tryTake()) {
+      return false;
+    }
+    reservations.offer(System.nanoTime() + reservationNanos);
+    return true;
+  }
+
+  /**
+   * Takes a slot for a new media stream, the oldest reservation if there is one, so a call already told
+   * it is being connected is not turned away. Returns {@code null} when admitted, otherwise why not.
+   */
+  String tryAdmit() {
+    expireReservations();
+    if (reservations.poll() != null) {
+      admitted.incrementAndGet();
+      return null;
+    }
+    if (draining) {
+      streamRejectedDraining.incrementAndGet();
+      return DRAINING;
+    }
+    if (!tryTake()) {
+      streamRejectedCapacity.incrementAndGet();
+      return CAPACITY;
+    }
+    admitted.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Gives back the slot of an admitted stream that has closed.
+   */
+  void release() {
+    admitted.decrementAndGet();
+    taken.decrementAndGet();
+  }
+
+  private boolean tryTake() {
+    expireReservations();
+    while (true) {
+      int current = taken.get();
+      if (maxCalls > 0 && current >= maxCalls) {
+        return false;
+      }
+      if (taken.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void expireReservations() {
+    long now = System.nanoTime();
+    Long expiresAt;
+    while ((expiresAt = reservations.peek()) != null && now - expiresAt >= 0) {
+      // Only the thread that removes a reservation gives its slot back
+      if (reservations.remove(expiresAt)) {
+        taken.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Counts an {@code /incoming-call} answered with the overflow TwiML because no node had room.
+   */
+  void webhookRejected() {
+    if (draining) {
+      webhookRejectedDraining.incrementAndGet();
+    } else {
+      webhookRejectedCapacity.incrementAndGet();
+    }
+  }
+
+  /**
+   * Calls this node can still admit: 0 while draining, infinite without a cap.
+   */
+  public double getHeadroom() {
+    if (draining) {
+      return 0;
+    }
+    expireReservations();
+    return maxCalls <= 0 ? Double.POSITIVE_INFINITY : Math.max(0, maxCalls - taken.get());
+  }
+
+  public int getMaxCalls() {
+    return maxCalls;
+  }
+
+  public int getAdmitted() {
+    return admitted.get();
+  }
+
+  /**
+   * Calls routed here whose media stream has not connected yet.
+   */
+  public int getReserved() {
+    expireReservations();
+    return reservations.size();
+  }
+
+  public boolean isDraining() {
+    return draining;
+  }
+
+  public void setDraining(boolean draining) {
+    if (this.draining != draining) {
+      this.draining = draining;
+      log.info((draining ? "Draining, " : "Admitting calls again, ") + admitted.get() + " calls in progress");
+    }
+  }
+
+  public long getWebhookRejectedCapacity() {
+    return webhookRejectedCapacity.get();
+  }
+
+  public long getWebhookRejectedDraining() {
+    return webhookRejectedDraining.get();
+  }
+
+  public long getStreamRejectedCapacity() {
+    return streamRejectedCapacity.get();
+  }
+
+  public long getStreamRejectedDraining() {
+    return streamRejectedDraining.get();
+  }
+
+  @Override
+  public void start() {
+    running = true;
+  }
+
+  /**
+   * Runs before the web server stops, since it has the highest phase.
+   */
+  @Override
+  public void stop() {
+    setDraining(true);
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+    try {
+      // Reserved calls still connect while draining, so wait for them as well
+      while (admitted.get() + getReserved() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(200);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (admitted.get() > 0) {
+      log.info("Drain timed out with " + admitted.get() + " calls in progress");
+    }
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
@@ -1,14 +1,86 @@
 package org.example;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class AppConfig {
 
+  /**
+   * Keep-alive connection pool shared by every call to the voicecall backend, so tool calls reuse warm
+   * connections instead of paying TCP and TLS setup each time.
+   */
+  @Bean
+  public CloseableHttpClient voiceCallHttpClient(@Value("${voicecall.http.max-total:200}") int maxTotal,
+                                                 @Value("${voicecall.http.max-per-route:50}") int maxPerRoute,
+                                                 @Value("${voicecall.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                                 @Value("${voicecall.http.read-timeout-ms:10000}") int readTimeoutMs,
+                                                 @Value("${voicecall.http.pool-timeout-ms:1000}") int poolTimeoutMs,
+                                                 @Value("${voicecall.http.idle-evict-ms:30000}") long idleEvictMs,
+                                                 @Value("${voicecall.http.keep-alive-ms:30000}") long keepAliveMs) {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    connectionManager.setValidateAfterInactivity(2000);
+
+    RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeoutMs)
+            .setSocketTimeout(readTimeoutMs)
+            .setConnectionRequestTimeout(poolTimeoutMs)
+            .build();
+
+    return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy((response, context) -> {
+              long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+              return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMs) : keepAliveMs;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(idleEvictMs, TimeUnit.MILLISECONDS)
+            .build();
+  }
+
+  /**
+   * A request made from a tool call is aborted when the call times out or is cancelled, which closes its
+   * socket and frees the pooled connection; interrupting the tool thread alone would not.
+   */
+  @Bean
+  public RestTemplate restTemplate(CloseableHttpClient voiceCallHttpClient) {
+    return new RestTemplate(new HttpComponentsClientHttpRequestFactory(voiceCallHttpClient) {
+      @Override
+      protected void postProcessHttpRequest(HttpUriRequest request) {
+        ToolCallExecutor.onAbort(request::abort);
+      }
+    });
+  }
+
+  /**
+   * In virtual-thread mode Tomcat handles each request and WebSocket frame on its own virtual thread
+   * instead of its worker pool, still with no more than {@code server.tomcat.threads.max} running at once,
+   * so the connector keeps the backpressure the pool gave it.
+   */
   @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplate();
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tomcatThreads(BridgeThreads bridgeThreads,
+                                                                                 @Value("${server.tomcat.threads.max:200}") int maxThreads) {
+    return factory -> {
+      if (bridgeThreads.isVirtual()) {
+        factory.addProtocolHandlerCustomizers(handler ->
+                handler.setExecutor(bridgeThreads.newBoundedPerTaskExecutor("tomcat-handler", maxThreads)));
+      }
+    };
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * One configured assistant: the phone numbers it answers and its {@code session.update} event, serialized
+ * once when the profiles are loaded.
+ */
+public final class AssistantProfile {
+  private final String name;
+  private final List<String> numbers;
+  private final String sessionUpdate;
+
+  public AssistantProfile(String name, List<String> numbers, String sessionUpdate) {
+    this.name = name;
+    this.numbers = numbers;
+    this.sessionUpdate = sessionUpdate;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public List<String> getNumbers() {
+    return numbers;
+  }
+
+  public String getSessionUpdate() {
+    return sessionUpdate;
+  }
+}
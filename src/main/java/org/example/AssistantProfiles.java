@@ -0,0 +1,191 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Assistant profiles loaded from {@code assistant.profiles-location}. Each profile's session is merged over
+ * the shared {@code defaults} and serialized into its {@code session.update} event once per load, so
+ * connecting a call only sends a ready string. When the location is a file and
+ * {@code assistant.reload-interval-ms} is positive, the file is re-read whenever it changes.
+ */
+@Component
+@Slf4j
+public class AssistantProfiles {
+  private static final String SESSION_UPDATE_TYPE = "session.update";
+
+  private final Resource location;
+  private final long reloadIntervalMs;
+  private volatile Snapshot snapshot;
+  private long lastModified;
+  private ScheduledExecutorService reloader;
+
+  public AssistantProfiles(ResourceLoader resourceLoader,
+                           @Value("${assistant.profiles-location:classpath:assistant-profiles.json}") String location,
+                           @Value("${assistant.reload-interval-ms:0}") long reloadIntervalMs) {
+    this.location = resourceLoader.getResource(location);
+    this.reloadIntervalMs = reloadIntervalMs;
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    snapshot = load();
+    lastModified = lastModified();
+    if (reloadIntervalMs > 0 && location.isFile()) {
+      reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "assistant-profiles-reload");
+        thread.setDaemon(true);
+        return thread;
+      });
+      reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (reloader != null) {
+      reloader.shutdownNow();
+    }
+  }
+
+  public AssistantProfile getDefault() {
+    return snapshot.defaultProfile;
+  }
+
+  /**
+   * Returns the named profile, or the default one when the name is unknown or {@code null}.
+   */
+  public AssistantProfile get(String name) {
+    Snapshot current = snapshot;
+    AssistantProfile profile = name == null ? null : current.byName.get(name);
+    return profile != null ? profile : current.defaultProfile;
+  }
+
+  /**
+   * Returns the profile answering the dialled Twilio number, or the default one.
+   */
+  public AssistantProfile forNumber(String number) {
+    Snapshot current = snapshot;
+    AssistantProfile profile = number == null ? null : current.byNumber.get(normalizeNumber(number));
+    return profile != null ? profile : current.defaultProfile;
+  }
+
+  public void reload() throws IOException {
+    snapshot = load();
+    log.info("Reloaded assistant profiles " + snapshot.byName.keySet());
+  }
+
+  private void reloadIfChanged() {
+    try {
+      long modified = lastModified();
+      if (modified != lastModified) {
+        lastModified = modified;
+        reload();
+      }
+    } catch (Exception e) {
+      log.info("Error reloading assistant profiles, keeping previous ones: " + e.getMessage());
+    }
+  }
+
+  private long lastModified() {
+    try {
+      return location.lastModified();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private Snapshot load() throws IOException {
+    String json;
+    try (InputStream in = location.getInputStream()) {
+      json = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+    }
+    JsonNode root = JsonUtils.getRootJsonNode(json);
+    if (root == null || !root.path("profiles").isObject() || root.path("profiles").size() == 0) {
+      throw new IOException("No assistant profiles found in " + location);
+    }
+
+    JsonNode defaults = root.path("defaults");
+    Map<String, AssistantProfile> byName = new HashMap<>();
+    Map<String, AssistantProfile> byNumber = new HashMap<>();
+    for (Iterator<Map.Entry<String, JsonNode>> it = root.get("profiles").fields(); it.hasNext(); ) {
+      Map.Entry<String, JsonNode> entry = it.next();
+      JsonNode config = entry.getValue();
+
+      ObjectNode session = JsonNodeFactory.instance.objectNode();
+      if (defaults.isObject()) {
+        session.setAll((ObjectNode) defaults);
+      }
+      if (config.path("session").isObject()) {
+        session.setAll((ObjectNode) config.get("session"));
+      }
+      ObjectNode sessionUpdate = JsonNodeFactory.instance.objectNode();
+      sessionUpdate.put("type", SESSION_UPDATE_TYPE);
+      sessionUpdate.set("session", session);
+
+      List<String> numbers = new ArrayList<>();
+      for (JsonNode number : config.path("numbers")) {
+        numbers.add(normalizeNumber(number.asText()));
+      }
+      AssistantProfile profile = new AssistantProfile(entry.getKey(), Collections.unmodifiableList(numbers),
+              JsonUtils.getJson(sessionUpdate));
+      byName.put(profile.getName(), profile);
+      for (String number : numbers) {
+        byNumber.put(number, profile);
+      }
+    }
+
+    String defaultName = root.path("defaultProfile").asText(null);
+    AssistantProfile defaultProfile = defaultName != null ? byName.get(defaultName) : null;
+    if (defaultProfile == null) {
+      defaultProfile = byName.values().iterator().next();
+    }
+    return new Snapshot(byName, byNumber, defaultProfile);
+  }
+
+  private static String normalizeNumber(String number) {
+    StringBuilder normalized = new StringBuilder(number.length());
+    for (int i = 0; i < number.length(); i++) {
+      char c = number.charAt(i);
+      if (Character.isDigit(c) || (c == '+' && normalized.length() == 0)) {
+        normalized.append(c);
+      }
+    }
+    return normalized.toString();
+  }
+
+  private static final class Snapshot {
+    private final Map<String, AssistantProfile> byName;
+    private final Map<String, AssistantProfile> byNumber;
+    private final AssistantProfile defaultProfile;
+
+    private Snapshot(Map<String, AssistantProfile> byName, Map<String, AssistantProfile> byNumber,
+                     AssistantProfile defaultProfile) {
+      this.byName = byName;
+      this.byNumber = byNumber;
+      this.defaultProfile = defaultProfile;
+    }
+  }
+}
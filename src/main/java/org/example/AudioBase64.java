@@ -0,0 +1,84 @@
+package org.example;
+
+/**
+ * Base64 conversions between the text payloads Twilio and OpenAI exchange and reusable byte buffers,
+ * without the intermediate arrays and strings {@link java.util.Base64} would allocate per frame.
+ */
+final class AudioBase64 {
+  private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+  private static final int[] VALUES = new int[128];
+
+  static {
+    java.util.Arrays.fill(VALUES, -1);
+    for (int i = 0; i < ALPHABET.length; i++) {
+      VALUES[ALPHABET[i]] = i;
+    }
+  }
+
+  private AudioBase64() {
+  }
+
+  /**
+   * Upper bound of the decoded size of {@code length} base64 characters.
+   */
+  static int maxDecodedLength(int length) {
+    return length / 4 * 3 + 3;
+  }
+
+  /**
+   * Decodes {@code src} into {@code dst} starting at {@code offset} and returns the number of bytes
+   * written. Padding ends the input; any other character outside the alphabet fails the call.
+   */
+  static int decode(CharSequence src, byte[] dst, int offset) {
+    return decode(src, 0, src.length(), dst, offset);
+  }
+
+  /**
+   * Decodes the characters of {@code src} between {@code start} and {@code end}, as
+   * {@link #decode(CharSequence, byte[], int)} does.
+   */
+  static int decode(CharSequence src, int start, int end, byte[] dst, int offset) {
+    int bits = 0;
+    int bitCount = 0;
+    int position = offset;
+    for (int i = start; i < end; i++) {
+      char c = src.charAt(i);
+      if (c == '=') {
+        break;
+      }
+      int value = c < 128 ? VALUES[c] : -1;
+      if (value < 0) {
+        throw new IllegalArgumentException("Illegal base64 character " + (int) c);
+      }
+      bits = (bits << 6) | value;
+      bitCount += 6;
+      if (bitCount >= 8) {
+        bitCount -= 8;
+        dst[position++] = (byte) (bits >> bitCount);
+      }
+    }
+    return position - offset;
+  }
+
+  /**
+   * Appends the padded base64 encoding of {@code src[offset, offset + length)} to {@code out}.
+   */
+  static void encode(byte[] src, int offset, int length, StringBuilder out) {
+    int end = offset + length;
+    int i = offset;
+    for (; i + 2 < end; i += 3) {
+      int chunk = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+      out.append(ALPHABET[chunk >>> 18]).append(ALPHABET[(chunk >>> 12) & 0x3f])
+              .append(ALPHABET[(chunk >>> 6) & 0x3f]).append(ALPHABET[chunk & 0x3f]);
+    }
+    int remaining = end - i;
+    if (remaining == 1) {
+      int chunk = (src[i] & 0xff) << 16;
+      out.append(ALPHABET[chunk >>> 18]).append(ALPHABET[(chunk >>> 12) & 0x3f]).append("==");
+    } else if (remaining == 2) {
+      int chunk = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+      out.append(ALPHABET[chunk >>> 18]).append(ALPHABET[(chunk >>> 12) & 0x3f])
+              .append(ALPHABET[(chunk >>> 6) & 0x3f]).append('=');
+    }
+  }
+}
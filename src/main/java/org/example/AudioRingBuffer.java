@@ -0,0 +1,69 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer, single-consumer byte ring. The producer never waits: a write that does not
+ * fit is refused as a whole, so the consumer never sees half a frame. Positions only grow; the index into
+ * the array is the position masked by the power-of-two capacity.
+ */
+final class AudioRingBuffer {
+  private final byte[] buffer;
+  private final int mask;
+  // Next position to read, only advanced by the consumer
+  private final AtomicLong head = new AtomicLong();
+  // Next position to write, only advanced by the producer
+  private final AtomicLong tail = new AtomicLong();
+
+  AudioRingBuffer(int minCapacity) {
+    int capacity = Integer.highestOneBit(Math.max(minCapacity, 64) - 1) << 1;
+    this.buffer = new byte[capacity];
+    this.mask = capacity - 1;
+  }
+
+  int capacity() {
+    return buffer.length;
+  }
+
+  /**
+   * Producer side: appends {@code src[offset, offset + length)} if it fits and returns whether it did.
+   */
+  boolean offer(byte[] src, int offset, int length) {
+    long position = tail.get();
+    if (length > buffer.length - (position - head.get())) {
+      return false;
+    }
+    int index = (int) position & mask;
+    int first = Math.min(length, buffer.length - index);
+    System.arraycopy(src, offset, buffer, index, first);
+    System.arraycopy(src, offset + first, buffer, 0, length - first);
+    // Ordered store: the copied bytes are visible before the new tail is
+    tail.lazySet(position + length);
+    return true;
+  }
+
+  /**
+   * Consumer side: moves as many buffered bytes as {@code dst} has room for and returns the count.
+   */
+  int drainTo(ByteBuffer dst) {
+    long position = head.get();
+    int length = (int) Math.min(tail.get() - position, dst.remaining());
+    int index = (int) position & mask;
+    int first = Math.min(length, buffer.length - index);
+    dst.put(buffer, index, first);
+    dst.put(buffer, 0, length - first);
+    head.lazySet(position + length);
+    return length;
+  }
+
+  /**
+   * Consumer side: drops everything buffered and returns how many bytes that was.
+   */
+  int discard() {
+    long position = head.get();
+    long end = tail.get();
+    head.lazySet(end);
+    return (int) (end - position);
+  }
+}
@@ -0,0 +1,199 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the counters the bridge components already keep as Micrometer gauges and function counters.
+ * They are read only when the registry is scraped, so the media path pays nothing extra for them.
+ */
+@Component
+public class BridgeMetrics implements MeterBinder {
+  private final CallBridgeRegistry callBridgeRegistry;
+  private final InboundAudioStats inboundAudioStats;
+  private final TwilioOutboundStats twilioOutboundStats;
+  private final ToolCallExecutor toolCallExecutor;
+  private final ToolResultCache toolResultCache;
+  private final RealtimeSessionPool realtimeSessionPool;
+  private final CallRecorder callRecorder;
+  private final ConversationLog conversationLog;
+  private final AdmissionControl admissionControl;
+
+  public BridgeMetrics(CallBridgeRegistry callBridgeRegistry, InboundAudioStats inboundAudioStats,
+                       TwilioOutboundStats twilioOutboundStats, ToolCallExecutor toolCallExecutor,
+                       ToolResultCache toolResultCache, RealtimeSessionPool realtimeSessionPool,
+                       CallRecorder callRecorder, ConversationLog conversationLog,
+                       AdmissionControl admissionControl) {
+    this.callBridgeRegistry = callBridgeRegistry;
+    this.inboundAudioStats = inboundAudioStats;
+    this.twilioOutboundStats = twilioOutboundStats;
+    this.toolCallExecutor = toolCallExecutor;
+    this.toolResultCache = toolResultCache;
+    this.realtimeSessionPool = realtimeSessionPool;
+    this.callRecorder = callRecorder;
+    this.conversationLog = conversationLog;
+    this.admissionControl = admissionControl;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("bridge.calls.active", callBridgeRegistry, CallBridgeRegistry::activeCalls)
+            .description("Twilio media streams currently bridged")
+            .register(registry);
+    Gauge.builder("bridge.admission.headroom", admissionControl, AdmissionControl::getHeadroom)
+            .description("Calls this node can still admit; 0 while draining, +Inf without bridge.admission.max-calls")
+            .register(registry);
+    Gauge.builder("bridge.admission.draining", admissionControl, control -> control.isDraining() ? 1 : 0)
+            .register(registry);
+    Gauge.builder("bridge.admission.reserved", admissionControl, AdmissionControl::getReserved)
+            .description("Calls routed to this node whose media stream has not connected yet")
+            .register(registry);
+    FunctionCounter.builder("bridge.admission.rejected", admissionControl, AdmissionControl::getWebhookRejectedCapacity)
+            .description("Calls turned away for lack of room or because the node is draining")
+            .tags("stage", "webhook", "reason", AdmissionControl.CAPACITY)
+            .register(registry);
+    FunctionCounter.builder("bridge.admission.rejected", admissionControl, AdmissionControl::getWebhookRejectedDraining)
+            .description("Calls turned away for lack of room or because the node is draining")
+            .tags("stage", "webhook", "reason", AdmissionControl.DRAINING)
+            .register(registry);
+    FunctionCounter.builder("bridge.admission.rejected", admissionControl, AdmissionControl::getStreamRejectedCapacity)
+            .description("Calls turned away for lack of room or because the node is draining")
+            .tags("stage", "stream", "reason", AdmissionControl.CAPACITY)
+            .register(registry);
+    FunctionCounter.builder("bridge.admission.rejected", admissionControl, AdmissionControl::getStreamRejectedDraining)
+            .description("Calls turned away for lack of room or because the node is draining")
+            .tags("stage", "stream", "reason", AdmissionControl.DRAINING)
+            .register(registry);
+
+    FunctionCounter.builder("bridge.inbound.frames", inboundAudioStats, InboundAudioStats::getFramesIn)
+            .description("Media frames received from Twilio")
+            .register(registry);
+    FunctionCounter.builder("bridge.inbound.frames.suppressed", inboundAudioStats, InboundAudioStats::getFramesSuppressed)
+            .description("Silent frames the local VAD kept from going upstream")
+            .register(registry);
+    Gauge.builder("bridge.inbound.suppression.ratio", inboundAudioStats, InboundAudioStats::getSuppressionRatio)
+            .description("Share of inbound frames, and so of upstream audio bytes, the local VAD kept back since startup")
+            .register(registry);
+    FunctionCounter.builder("bridge.inbound.frames.malformed", inboundAudioStats, InboundAudioStats::getFramesMalformed)
+            .description("Media frames dropped because their payload was not valid base64")
+            .register(registry);
+    FunctionCounter.builder("bridge.inbound.messages", inboundAudioStats, InboundAudioStats::getMessagesOut)
+            .description("input_audio_buffer.append messages sent upstream")
+            .register(registry);
+    Gauge.builder("bridge.inbound.frames.per.message", inboundAudioStats, InboundAudioStats::getFramesPerMessage)
+            .description("Average Twilio frames carried by each upstream append message since startup")
+            .register(registry);
+    Gauge.builder("bridge.inbound.held.average", inboundAudioStats, InboundAudioStats::getAverageHeldMillis)
+            .description("Average time coalescing held the first frame of each upstream message since startup")
+            .baseUnit("milliseconds")
+            .register(registry);
+
+    FunctionCounter.builder("bridge.outbound.frames", twilioOutboundStats, TwilioOutboundStats::getSent)
+            .description("Messages written to Twilio")
+            .register(registry);
+    FunctionCounter.builder("bridge.outbound.dropped", twilioOutboundStats, TwilioOutboundStats::getDroppedAudio)
+            .description("Audio frames dropped because a Twilio send queue was full")
+            .register(registry);
+    FunctionCounter.builder("bridge.outbound.purged", twilioOutboundStats, TwilioOutboundStats::getPurgedAudio)
+            .description("Queued audio and marks purged on barge-in")
+            .register(registry);
+    FunctionCounter.builder("bridge.outbound.send.failures", twilioOutboundStats, TwilioOutboundStats::getSendFailures)
+            .description("Writes to Twilio that failed")
+            .register(registry);
+    FunctionCounter.builder("bridge.outbound.send.timeouts", twilioOutboundStats, TwilioOutboundStats::getSendTimeouts)
+            .description("Twilio sessions closed because a write did not finish within bridge.outbound.send-timeout-ms")
+            .register(registry);
+    Gauge.builder("bridge.outbound.queue.depth", twilioOutboundStats, TwilioOutboundStats::getQueued)
+            .description("Messages waiting in all Twilio send queues")
+            .register(registry);
+    Gauge.builder("bridge.outbound.queue.max-depth", twilioOutboundStats, TwilioOutboundStats::getMaxSessionDepth)
+            .description("Deepest single-session Twilio send queue since startup")
+            .register(registry);
+    Gauge.builder("bridge.outbound.held", twilioOutboundStats, TwilioOutboundStats::getHeld)
+            .description("Audio frames held back by outbound pacing")
+            .register(registry);
+
+    Gauge.builder("tools.executor.queue.depth", toolCallExecutor, ToolCallExecutor::getQueueDepth)
+            .description("Tool calls waiting for an executor thread")
+            .register(registry);
+    Gauge.builder("tools.executor.active", toolCallExecutor, ToolCallExecutor::getActiveCount)
+            .register(registry);
+    FunctionCounter.builder("tools.executor.submitted", toolCallExecutor, ToolCallExecutor::getSubmitted)
+            .register(registry);
+    FunctionCounter.builder("tools.executor.rejected", toolCallExecutor, ToolCallExecutor::getRejected)
+            .register(registry);
+    FunctionCounter.builder("tools.executor.timeouts", toolCallExecutor, ToolCallExecutor::getTimedOut)
+            .register(registry);
+    FunctionCounter.builder("tools.cache.requests", toolResultCache, ToolResultCache::getHits)
+            .tag("result", "hit")
+            .register(registry);
+    FunctionCounter.builder("tools.cache.requests", toolResultCache, ToolResultCache::getMisses)
+            .tag("result", "miss")
+            .register(registry);
+
+    Gauge.builder("openai.pool.idle", realtimeSessionPool, RealtimeSessionPool::idleCount)
+            .description("Pre-warmed realtime sessions ready to be claimed")
+            .register(registry);
+    FunctionCounter.builder("openai.pool.claims", realtimeSessionPool, RealtimeSessionPool::getHits)
+            .tag("result", "hit")
+            .register(registry);
+    FunctionCounter.builder("openai.pool.claims", realtimeSessionPool, RealtimeSessionPool::getMisses)
+            .tag("result", "miss")
+            .register(registry);
+    FunctionCounter.builder("openai.pool.retired", realtimeSessionPool, RealtimeSessionPool::getRetired)
+            .description("Pooled sessions closed unclaimed because they dropped or reached their max age")
+            .register(registry);
+    FunctionCounter.builder("openai.pool.setup.saved", realtimeSessionPool, RealtimeSessionPool::getSavedSetupMillis)
+            .description("Connect and session.update time that calls skipped by claiming a pooled session")
+            .baseUnit("milliseconds")
+            .register(registry);
+    FunctionTimer.builder("openai.first-audio", realtimeSessionPool, pool -> pool.getFirstAudioCount(true),
+                    pool -> pool.getFirstAudioTotalMillis(true), TimeUnit.MILLISECONDS)
+            .description("Time from claiming an upstream session to the first audio delta of the call")
+            .tag("upstream", "pooled")
+            .register(registry);
+    FunctionTimer.builder("openai.first-audio", realtimeSessionPool, pool -> pool.getFirstAudioCount(false),
+                    pool -> pool.getFirstAudioTotalMillis(false), TimeUnit.MILLISECONDS)
+            .description("Time from claiming an upstream session to the first audio delta of the call")
+            .tag("upstream", "cold")
+            .register(registry);
+
+    Gauge.builder("recording.active", callRecorder, CallRecorder::activeRecordings)
+            .description("Calls being recorded")
+            .register(registry);
+    FunctionCounter.builder("recording.written", callRecorder, CallRecorder::getRecordedBytes)
+            .description("Audio bytes written to recording files")
+            .baseUnit("bytes")
+            .register(registry);
+    FunctionCounter.builder("recording.dropped", callRecorder, CallRecorder::getDroppedInboundBytes)
+            .description("Audio bytes left out of recordings because a recording buffer was full")
+            .baseUnit("bytes")
+            .tag("direction", "inbound")
+            .register(registry);
+    FunctionCounter.builder("recording.dropped", callRecorder, CallRecorder::getDroppedOutboundBytes)
+            .description("Audio bytes left out of recordings because a recording buffer was full")
+            .baseUnit("bytes")
+            .tag("direction", "outbound")
+            .register(registry);
+
+    FunctionCounter.builder("conversation.log.events", conversationLog, ConversationLog::getWritten)
+            .description("Conversation events written to the log")
+            .register(registry);
+    FunctionCounter.builder("conversation.log.dropped", conversationLog, ConversationLog::getDropped)
+            .description("Conversation events lost to a full queue or a failed write")
+            .register(registry);
+    FunctionCounter.builder("conversation.log.batches", conversationLog, ConversationLog::getBatches)
+            .description("Writes to the log, each carrying every event queued at the time")
+            .register(registry);
+    FunctionCounter.builder("conversation.log.syncs", conversationLog, ConversationLog::getSyncs)
+            .register(registry);
+    Gauge.builder("conversation.log.queue.depth", conversationLog, ConversationLog::getQueued)
+            .register(registry);
+  }
+}
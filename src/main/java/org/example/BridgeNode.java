@@ -0,0 +1,63 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A routing target: the last status a node reported, when it arrived, and how many calls were sent its
+ * way since. Counting those keeps a burst of webhooks between two status reports from all picking the
+ * same node.
+ */
+final class BridgeNode {
+  private final String key;
+  private volatile NodeStatus status;
+  private volatile long updatedAtNanos;
+  private final AtomicInteger routedSinceUpdate = new AtomicInteger();
+
+  BridgeNode(String key) {
+    this.key = key;
+  }
+
+  /**
+   * The configured address of the node, which stays the same when its reported id changes.
+   */
+  String getKey() {
+    return key;
+  }
+
+  NodeStatus getStatus() {
+    return status;
+  }
+
+  long getUpdatedAtNanos() {
+    return updatedAtNanos;
+  }
+
+  void update(NodeStatus status) {
+    this.status = status;
+    this.updatedAtNanos = System.nanoTime();
+    routedSinceUpdate.set(0);
+  }
+
+  /**
+   * Marks the node down until its next successful report.
+   */
+  void markUnhealthy() {
+    NodeStatus current = status;
+    if (current != null && current.isHealthy()) {
+      status = new NodeStatus(current.getNode(), current.getStreamUrl(), current.getActiveCalls(), current.getMaxCalls(),
+              current.isDraining(), false);
+    }
+  }
+
+  void routed() {
+    routedSinceUpdate.incrementAndGet();
+  }
+
+  /**
+   * Reported active calls plus the calls routed here since the report.
+   */
+  int load() {
+    NodeStatus current = status;
+    return (current == null ? 0 : current.getActiveCalls()) + routedSinceUpdate.get();
+  }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses the threads that run the blocking parts of a call: upstream connects and socket reads, tool
+ * calls, Twilio writes and Tomcat's request handling. With {@code bridge.threads.virtual=true} on Java 21
+ * or later these are virtual threads, so the number of platform threads stops growing with active calls.
+ * The build still targets Java 8, so the Java 21 API is reached reflectively; on older runtimes the
+ * setting logs a warning and platform threads are used.
+ */
+@Component
+@Slf4j
+public class BridgeThreads {
+  private final boolean virtual;
+
+  public BridgeThreads(@Value("${bridge.threads.virtual:false}") boolean virtualRequested) {
+    boolean supported = virtualRequested && supportsVirtualThreads();
+    if (virtualRequested && !supported) {
+      log.warn("bridge.threads.virtual needs Java 21 or later, running on " + System.getProperty("java.version")
+              + " with platform threads");
+    }
+    this.virtual = supported;
+    log.info("Bridge threads: " + (virtual ? "virtual" : "platform"));
+  }
+
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Threads named {@code prefix-1}, {@code prefix-2}, ...; virtual in virtual mode, platform daemons otherwise.
+   */
+  public ThreadFactory factory(String prefix) {
+    if (virtual) {
+      try {
+        Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix + "-", 1L);
+        return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Could not create virtual threads", e);
+      }
+    }
+    AtomicInteger threadNumber = new AtomicInteger();
+    return r -> {
+      Thread thread = new Thread(r, prefix + "-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * An executor that starts a new virtual thread for every task. Only available in virtual mode, where
+   * pooling threads buys nothing.
+   */
+  public ExecutorService newPerTaskExecutor(String prefix) {
+    if (!virtual) {
+      throw new IllegalStateException("Per-task executors are only used with virtual threads");
+    }
+    try {
+      Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) perTask.invoke(null, factory(prefix));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create a virtual thread executor", e);
+    }
+  }
+
+  /**
+   * A per-task executor that runs at most {@code maxRunning} tasks at once. The others wait parked on their
+   * own virtual thread, as they would queue for a pool of that many platform threads, so the work admitted
+   * stays bounded while waiting costs next to nothing.
+   */
+  public Executor newBoundedPerTaskExecutor(String prefix, int maxRunning) {
+    ExecutorService perTask = newPerTaskExecutor(prefix);
+    Semaphore running = new Semaphore(maxRunning);
+    return task -> perTask.execute(() -> {
+      running.acquireUninterruptibly();
+      try {
+        task.run();
+      } finally {
+        running.release();
+      }
+    });
+  }
+
+  private static boolean supportsVirtualThreads() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,426 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Per-call link between one Twilio media stream and its own OpenAI realtime socket. Everything that
+ * used to live in fields of the singleton handler lives here, so concurrent calls never share state.
+ */
+@Slf4j
+public class CallBridge implements RealtimeListener {
+  private final WebSocketSession twilioSession;
+  private final String sessionId;
+  private static final String TOOL_FAILURE_RESULT = "Sorry, I could not get that information right now. Please try again in a moment.";
+
+  private final VoiceCallApiClient voiceCallApiClient;
+  private final ToolCallExecutor toolCallExecutor;
+  private final ToolResultCache toolResultCache;
+  private final Set<CompletableFuture<String>> pendingToolCalls = ConcurrentHashMap.newKeySet();
+  private final CallBridgeRegistry registry;
+  private final OpenAiRealtimeConnector connector;
+  private final RealtimeSessionPool sessionPool;
+  private final AssistantProfiles assistantProfiles;
+  private final CallRecorder callRecorder;
+  private volatile CallRecording recording;
+  private final ConversationLog conversationLog;
+  private volatile OpenAiRealtimeConnection openAiWebSocket;
+  private volatile String streamSid;
+  private volatile boolean closed;
+  private boolean pooledUpstream;
+  private long claimedAtNanos;
+  private volatile boolean firstAudioSeen;
+  private final boolean audioPassthrough;
+  private final TwilioMediaFrame mediaFrame = new TwilioMediaFrame();
+  private final TwilioEventParser twilioEvents = new TwilioEventParser();
+  private final InboundAudioStats inboundAudioStats;
+  private final InboundAudioCoalescer inboundCoalescer;
+  private final VoiceActivityGate voiceActivityGate;
+  private final TwilioOutboundQueue outboundQueue;
+  private final OutboundPacer outboundPacer;
+  private final PlaybackTracker playback = new PlaybackTracker();
+  private String currentItemId;
+  private volatile boolean responseActive;
+  // Set by barge-in until the next response starts: deltas of the cut-off response still in flight are dropped
+  private boolean audioInterrupted;
+  private final Timer responseLatency;
+  private long speechStoppedAtNanos;
+
+  CallBridge(WebSocketSession twilioSession, CallBridgeFactory factory) {
+    this.twilioSession = twilioSession;
+    this.sessionId = twilioSession.getId();
+    this.voiceCallApiClient = factory.getVoiceCallApiClient();
+    this.toolCallExecutor = factory.getToolCallExecutor();
+    this.toolResultCache = factory.getToolResultCache();
+    this.registry = factory.getCallBridgeRegistry();
+    this.connector = factory.getOpenAiRealtimeConnector();
+    this.sessionPool = factory.getRealtimeSessionPool();
+    this.assistantProfiles = factory.getAssistantProfiles();
+    this.callRecorder = factory.getCallRecorder();
+    this.conversationLog = factory.getConversationLog();
+    this.audioPassthrough = factory.isAudioPassthrough();
+    this.inboundAudioStats = factory.getInboundAudioStats();
+    this.outboundQueue = factory.newOutboundQueue(twilioSession, playback::markDropped);
+    this.outboundPacer = factory.newOutboundPacer(outboundQueue);
+    this.inboundCoalescer = factory.isInboundCoalescing()
+            ? new InboundAudioCoalescer(factory.getInboundWindowBytes(), factory.getInboundMaxLatencyNanos(),
+            inboundAudioStats, this::sendUpstreamAudio)
+            : null;
+    this.voiceActivityGate = factory.newVoiceActivityGate();
+    this.responseLatency = factory.getResponseLatency();
+  }
+
+  public String getSessionId() {
+    return sessionId;
+  }
+
+  public String getStreamSid() {
+    return streamSid;
+  }
+
+  /**
+   * The {@code streamSid} once Twilio has sent it, the WebSocket session id before that.
+   */
+  private String callName() {
+    String sid = streamSid;
+    return sid != null ? sid : sessionId;
+  }
+
+  public WebSocketSession getTwilioSession() {
+    return twilioSession;
+  }
+
+  /**
+   * Takes a pre-warmed realtime session from the pool, or opens a new one when the pool is empty.
+   */
+  public void connectToOpenAi() {
+    claimedAtNanos = System.nanoTime();
+    OpenAiRealtimeConnection pooled = sessionPool.claim();
+    if (pooled != null) {
+      pooledUpstream = true;
+      pooled.attach(this);
+      openAiWebSocket = pooled;
+      return;
+    }
+
+    OpenAiRealtimeConnection connection = connector.newConnection();
+    connection.attach(this);
+    openAiWebSocket = connection;
+    connector.connect(connection).thenAccept(connected -> {
+      if (!connected) {
+        log.info("Could not connect to OpenAI for session " + sessionId);
+      }
+      if (closed) {
+        connection.close();
+      }
+    });
+  }
+
+  @Override
+  public void onRealtimeMessage(String message) {
+    boolean audioDelta = TwilioMediaFrame.isAudioDelta(message);
+    if (audioDelta && audioInterrupted) {
+      return;
+    }
+    if (audioPassthrough && audioDelta) {
+      String frame = mediaFrame.fromAudioDelta(message);
+      if (frame != null) {
+        currentItemId = TwilioMediaFrame.itemId(message, currentItemId);
+        relayAudio(frame, currentItemId, mediaFrame.getLastDeltaBytes());
+        return;
+      }
+    }
+    RealtimeEvent event = JsonUtils.parseJsonResponse(message, RealtimeEvent.class);
+    if (event != null) {
+      handleOpenAiResponse(event, message);
+    }
+  }
+
+  @Override
+  public void onRealtimeBinary(ByteBuffer bytes) {
+    // Forward any messages from OpenAI to Twilio
+    outboundQueue.offerAudio(new BinaryMessage(bytes));
+  }
+
+  @Override
+  public void onRealtimeClosed(int code, String reason, boolean remote) {
+    log.info("OpenAI WebSocket closed for session " + sessionId + ": " + reason);
+  }
+
+  public void handleTwilioBinary(BinaryMessage message) {
+    OpenAiRealtimeConnection client = openAiWebSocket;
+    if (client != null && client.isOpen()) {
+      client.send(message.getPayload().array());
+    }
+  }
+
+  public void handleTwilioText(String payload) {
+    TwilioEventParser.Event event;
+    try {
+      event = twilioEvents.parse(payload);
+    } catch (IOException e) {
+      log.info("Error parsing message from Twilio: " + e.getMessage());
+      return;
+    }
+
+    if (event == TwilioEventParser.Event.MEDIA) {
+      inboundAudioStats.frameReceived();
+      CallRecording callRecording = recording;
+      if (callRecording != null) {
+        CharSequence audio = twilioEvents.getPayload();
+        callRecording.inbound().appendBase64(audio, 0, audio.length());
+      }
+      if (voiceActivityGate != null) {
+        voiceActivityGate.onFrame(twilioEvents.getPayload(), this::forwardInboundAudio);
+      } else {
+        forwardInboundAudio(twilioEvents.getPayload());
+      }
+    } else if (event == TwilioEventParser.Event.START) {
+      streamSid = twilioEvents.getStreamSid();
+      mediaFrame.setStreamSid(streamSid);
+      registry.bindStreamSid(streamSid, this);
+      if (recording == null) {
+        CallRecording callRecording = callRecorder.start(streamSid);
+        recording = callRecording;
+        // close() may have run on another thread before the field was set
+        if (callRecording != null && closed) {
+          callRecording.close();
+        }
+      }
+      OpenAiRealtimeConnection client = openAiWebSocket;
+      if (client != null) {
+        client.applyProfile(assistantProfiles.get(twilioEvents.getProfile()));
+      }
+    } else if (event == TwilioEventParser.Event.MARK) {
+      playback.markPlayed(twilioEvents.getMarkName());
+    } else if (event == TwilioEventParser.Event.STOP) {
+//      log.info("Incoming stream has stopped");
+      if (inboundCoalescer != null) {
+        inboundCoalescer.flush();
+      }
+    } else if (event == TwilioEventParser.Event.UNKNOWN) {
+      log.info("Received unknown event from Twilio: " + twilioEvents.getEventName());
+    }
+  }
+
+  /**
+   * Sends coalesced caller audio whose latency deadline has passed; called by the shared flush timer.
+   */
+  void flushInboundIfDue(long nowNanos) {
+    if (inboundCoalescer != null) {
+      inboundCoalescer.flushIfDue(nowNanos);
+    }
+  }
+
+  private void forwardInboundAudio(CharSequence payload) {
+    if (inboundCoalescer != null) {
+      inboundCoalescer.add(payload);
+    } else {
+      sendUpstreamAudio(twilioEvents.audioAppendMessage(payload));
+      inboundAudioStats.messageSent(0);
+    }
+  }
+
+  private void sendUpstreamAudio(String audioAppend) {
+    OpenAiRealtimeConnection client = openAiWebSocket;
+    if (client != null && client.isOpen()) {
+      client.send(audioAppend);
+    }
+  }
+
+  /**
+   * Releases the upstream socket. Safe to call more than once and from any thread.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (outboundPacer != null) {
+      outboundPacer.close();
+    }
+    outboundQueue.close();
+    CallRecording callRecording = recording;
+    if (callRecording != null) {
+      callRecording.close();
+    }
+    for (CompletableFuture<String> toolCall : pendingToolCalls) {
+      toolCall.cancel(true);
+    }
+    OpenAiRealtimeConnection client = openAiWebSocket;
+    if (client != null && client.isOpen()) {
+      client.close();
+    }
+  }
+
+  private void handleOpenAiResponse(RealtimeEvent event, String message) {
+    // Check if the event type is one of the ones we are interested in
+    String eventType = event.getType();
+    if (eventType == null) {
+      return;
+    }
+
+    try {
+      switch (eventType) {
+        case RealtimeEvent.SPEECH_STARTED:
+          interruptPlayback();
+          break;
+        case RealtimeEvent.SPEECH_STOPPED:
+          speechStoppedAtNanos = System.nanoTime();
+          break;
+        case RealtimeEvent.RESPONSE_CREATED:
+          responseActive = true;
+          audioInterrupted = false;
+          break;
+        case RealtimeEvent.RESPONSE_DONE:
+          responseActive = false;
+          break;
+        case RealtimeEvent.AUDIO_DELTA:
+          // Deltas the passthrough path turned down, e.g. before the stream started or with escapes
+          if (event.getDelta() != null && !audioInterrupted) {
+            if (event.getItemId() != null) {
+              currentItemId = event.getItemId();
+            }
+            String frame = mediaFrame.media(event.getDelta());
+            relayAudio(frame, currentItemId, mediaFrame.getLastDeltaBytes());
+          }
+          break;
+        case RealtimeEvent.FUNCTION_CALL_ARGUMENTS_DONE:
+          log.info("Function call arguments received: " + message);
+          conversationLog.append(callName(), ConversationEvent.FUNCTION_CALL, event.getCallId(), event.getArguments());
+          runTool(event);
+          break;
+        case RealtimeEvent.INPUT_TRANSCRIPTION_COMPLETED:
+          conversationLog.append(callName(), ConversationEvent.CALLER_TRANSCRIPT, event.getItemId(), event.getTranscript());
+          break;
+        case RealtimeEvent.AUDIO_TRANSCRIPT_DONE:
+          conversationLog.append(callName(), ConversationEvent.ASSISTANT_TRANSCRIPT, event.getItemId(), event.getTranscript());
+          break;
+        case RealtimeEvent.ERROR:
+          log.info("Error from OpenAI: " + message);
+          break;
+        default:
+          break;
+      }
+    } catch (Exception e) {
+      log.info("Error during message handling: " + e);
+    }
+  }
+
+  /**
+   * Queues an audio frame for Twilio followed by a mark, so playback of the item can be tracked.
+   */
+  private void relayAudio(String frame, String itemId, int bytes) {
+    onAudioDelta();
+    CallRecording callRecording = recording;
+    if (callRecording != null) {
+      callRecording.outbound().appendBase64(frame, mediaFrame.getLastPayloadStart(), mediaFrame.getLastPayloadEnd());
+    }
+    long markId = mediaFrame.hasStream() ? playback.audioSent(itemId, bytes) : 0;
+    TextMessage mark = markId != 0 ? new TextMessage(mediaFrame.mark(markId)) : null;
+    if (outboundPacer != null) {
+      outboundPacer.offer(new TextMessage(frame), mark, markId, bytes);
+      return;
+    }
+    outboundQueue.offerAudio(new TextMessage(frame));
+    if (mark != null) {
+      outboundQueue.offerMark(mark, markId);
+    }
+  }
+
+  /**
+   * Barge-in: stops generation, drops audio the caller has not heard yet both here and in Twilio's
+   * buffer, and truncates the assistant item to what was actually played. Deltas of the interrupted
+   * response that are still on their way are dropped until the next response starts.
+   */
+  private void interruptPlayback() {
+    audioInterrupted = true;
+    PlaybackTracker.Interruption interruption = playback.interrupt();
+    if (outboundPacer != null) {
+      outboundPacer.purge();
+    }
+    outboundQueue.purgeAudio();
+    OpenAiRealtimeConnection client = openAiWebSocket;
+    if (client != null && client.isOpen()) {
+      if (responseActive) {
+        responseActive = false;
+        client.send(RealtimeCommand.RESPONSE_CANCEL);
+      }
+      if (interruption != null) {
+        client.send(RealtimeCommand.truncate(interruption.itemId, interruption.playedMs));
+        log.info("Caller interrupted item " + interruption.itemId + " after " + interruption.playedMs + " ms, dropped "
+                + interruption.unplayedMs + " ms of unplayed audio");
+      }
+    }
+    if (streamSid != null) {
+      outboundQueue.offerControl(new TextMessage("{\"event\":\"clear\",\"streamSid\":\"" + streamSid + "\"}"));
+    }
+  }
+
+  private void onAudioDelta() {
+    if (speechStoppedAtNanos != 0) {
+      responseLatency.record(System.nanoTime() - speechStoppedAtNanos, TimeUnit.NANOSECONDS);
+      speechStoppedAtNanos = 0;
+    }
+    if (!firstAudioSeen) {
+      firstAudioSeen = true;
+      sessionPool.recordFirstAudio(pooledUpstream, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - claimedAtNanos));
+    }
+  }
+
+  /**
+   * Answers from the result cache when possible; otherwise runs the tool off the upstream read thread and
+   * posts its result, or a fallback answer when it fails, times out or the call ends first.
+   */
+  private void runTool(RealtimeEvent functionCall) {
+    String callId = functionCall.getCallId();
+    RealtimeEvent.ToolArguments args = functionCall.getToolArguments();
+    if (callId == null || args == null) {
+      log.error("Error parsing function call arguments: " + functionCall.getArguments());
+      return;
+    }
+    log.info("Function call arguments: " + args);
+    String inference = args.getInference();
+    String cacheKey = toolResultCache.keyFor(inference);
+    String cached = toolResultCache.get(cacheKey);
+    if (cached != null) {
+      sendFunctionCallResult(cached, callId);
+      return;
+    }
+
+    CompletableFuture<String> toolCall = toolCallExecutor.execute(() -> voiceCallApiClient.callVoiceApi(inference));
+    pendingToolCalls.add(toolCall);
+    toolCall.whenComplete((result, error) -> {
+      pendingToolCalls.remove(toolCall);
+      if (closed) {
+        return;
+      }
+      if (error != null) {
+        log.info("Tool call " + callId + " failed: " + error);
+        result = TOOL_FAILURE_RESULT;
+      } else if (!VoiceCallApiClient.NO_RESPONSE.equals(result)) {
+        toolResultCache.put(cacheKey, result);
+      }
+      sendFunctionCallResult(result, callId);
+    });
+  }
+
+  public void sendFunctionCallResult(String result, String callId) {
+    log.info("Sending function call result to OpenAI: " + result);
+    conversationLog.append(callName(), ConversationEvent.TOOL_RESULT, callId, result);
+    openAiWebSocket.send(RealtimeCommand.functionCallOutput(callId, result));
+
+    log.info("Sending response create to OpenAI: " + RealtimeCommand.RESPONSE_CREATE);
+    openAiWebSocket.send(RealtimeCommand.RESPONSE_CREATE);
+  }
+}
@@ -0,0 +1,247 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Creates the {@link CallBridge} for each new Twilio media stream with the shared collaborators and
+ * bridge settings.
+ */
+@Component
+public class CallBridgeFactory {
+  private static final int MULAW_BYTES_PER_MS = 8;
+  private static final int TWILIO_FRAME_MS = 20;
+  private static final int TWILIO_FRAME_BYTES = TWILIO_FRAME_MS * MULAW_BYTES_PER_MS;
+
+  private final VoiceCallApiClient voiceCallApiClient;
+  private final ToolCallExecutor toolCallExecutor;
+  private final ToolResultCache toolResultCache;
+  private final CallBridgeRegistry callBridgeRegistry;
+  private final OpenAiRealtimeConnector openAiRealtimeConnector;
+  private final RealtimeSessionPool realtimeSessionPool;
+  private final AssistantProfiles assistantProfiles;
+  private final boolean audioPassthrough;
+  private final InboundAudioStats inboundAudioStats;
+  private final int inboundWindowBytes;
+  private final long inboundMaxLatencyMs;
+  private ScheduledExecutorService inboundFlushTimer;
+  private final TwilioOutboundStats twilioOutboundStats;
+  private final int maxQueuedAudio;
+  private final TwilioOutboundQueue.OverflowPolicy overflowPolicy;
+  private final long sendTimeoutMs;
+  private final ExecutorService twilioWriterPool;
+  private final boolean vadEnabled;
+  private final double vadThresholdDbfs;
+  private final int vadHangoverMs;
+  private final int vadPrerollMs;
+  private final int vadKeepAliveMs;
+  private final Timer responseLatency;
+  private final CallRecorder callRecorder;
+  private final ConversationLog conversationLog;
+  private final boolean pacingEnabled;
+  private final long pacingLeadMs;
+  private final long pacingTickMs;
+  private HashedWheelTimer pacingTimer;
+
+  public CallBridgeFactory(VoiceCallApiClient voiceCallApiClient, ToolCallExecutor toolCallExecutor,
+                           ToolResultCache toolResultCache, CallBridgeRegistry callBridgeRegistry,
+                           OpenAiRealtimeConnector openAiRealtimeConnector, RealtimeSessionPool realtimeSessionPool,
+                           AssistantProfiles assistantProfiles,
+                           @Value("${bridge.audio.passthrough:true}") boolean audioPassthrough,
+                           InboundAudioStats inboundAudioStats,
+                           @Value("${bridge.inbound.coalesce-ms:20}") int inboundCoalesceMs,
+                           @Value("${bridge.inbound.max-latency-ms:100}") long inboundMaxLatencyMs,
+                           TwilioOutboundStats twilioOutboundStats,
+                           @Value("${bridge.outbound.writer-threads:16}") int writerThreads,
+                           @Value("${bridge.outbound.max-queued-audio:500}") int maxQueuedAudio,
+                           @Value("${bridge.outbound.overflow-policy:DROP_OLDEST_AUDIO}") TwilioOutboundQueue.OverflowPolicy overflowPolicy,
+                           @Value("${bridge.outbound.send-timeout-ms:2000}") long sendTimeoutMs,
+                           @Value("${bridge.outbound.pacing.enabled:false}") boolean pacingEnabled,
+                           @Value("${bridge.outbound.pacing.lead-ms:200}") long pacingLeadMs,
+                           @Value("${bridge.outbound.pacing.tick-ms:10}") long pacingTickMs,
+                           @Value("${bridge.vad.enabled:false}") boolean vadEnabled,
+                           @Value("${bridge.vad.threshold-dbfs:-45}") double vadThresholdDbfs,
+                           @Value("${bridge.vad.hangover-ms:800}") int vadHangoverMs,
+                           @Value("${bridge.vad.preroll-ms:300}") int vadPrerollMs,
+                           @Value("${bridge.vad.keepalive-ms:1000}") int vadKeepAliveMs,
+                           MeterRegistry meterRegistry, BridgeThreads bridgeThreads, CallRecorder callRecorder,
+                           ConversationLog conversationLog) {
+    this.voiceCallApiClient = voiceCallApiClient;
+    this.toolCallExecutor = toolCallExecutor;
+    this.toolResultCache = toolResultCache;
+    this.callBridgeRegistry = callBridgeRegistry;
+    this.openAiRealtimeConnector = openAiRealtimeConnector;
+    this.realtimeSessionPool = realtimeSessionPool;
+    this.assistantProfiles = assistantProfiles;
+    this.audioPassthrough = audioPassthrough;
+    this.inboundAudioStats = inboundAudioStats;
+    this.inboundWindowBytes = inboundCoalesceMs * MULAW_BYTES_PER_MS;
+    this.inboundMaxLatencyMs = inboundMaxLatencyMs;
+    this.twilioOutboundStats = twilioOutboundStats;
+    this.maxQueuedAudio = maxQueuedAudio;
+    this.overflowPolicy = overflowPolicy;
+    this.sendTimeoutMs = sendTimeoutMs;
+    this.pacingEnabled = pacingEnabled;
+    this.pacingLeadMs = pacingLeadMs;
+    this.pacingTickMs = pacingTickMs;
+    this.vadEnabled = vadEnabled;
+    this.vadThresholdDbfs = vadThresholdDbfs;
+    this.vadHangoverMs = vadHangoverMs;
+    this.vadPrerollMs = vadPrerollMs;
+    this.vadKeepAliveMs = vadKeepAliveMs;
+    this.callRecorder = callRecorder;
+    this.conversationLog = conversationLog;
+    this.responseLatency = Timer.builder("bridge.response.latency")
+            .description("Time from input_audio_buffer.speech_stopped to the first response.audio.delta")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(50))
+            .maximumExpectedValue(Duration.ofSeconds(20))
+            .register(meterRegistry);
+    this.twilioWriterPool = bridgeThreads.isVirtual()
+            ? bridgeThreads.newPerTaskExecutor("twilio-writer")
+            : Executors.newFixedThreadPool(writerThreads, bridgeThreads.factory("twilio-writer"));
+  }
+
+  @PostConstruct
+  public void start() {
+    if (pacingEnabled) {
+      // One wheel paces every call; its single worker only moves frames into the send queues
+      pacingTimer = new HashedWheelTimer(new DefaultThreadFactory("outbound-pacer", true), pacingTickMs,
+              TimeUnit.MILLISECONDS, 512);
+      pacingTimer.start();
+    }
+    if (!isInboundCoalescing()) {
+      return;
+    }
+    inboundFlushTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "inbound-audio-flush");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long tickMs = Math.max(5, inboundMaxLatencyMs / 4);
+    inboundFlushTimer.scheduleAtFixedRate(() -> {
+      long now = System.nanoTime();
+      for (CallBridge bridge : callBridgeRegistry.activeBridges()) {
+        bridge.flushInboundIfDue(now);
+      }
+    }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (inboundFlushTimer != null) {
+      inboundFlushTimer.shutdownNow();
+    }
+    if (pacingTimer != null) {
+      pacingTimer.stop();
+    }
+    twilioWriterPool.shutdownNow();
+  }
+
+  public CallBridge create(WebSocketSession twilioSession) {
+    return new CallBridge(twilioSession, this);
+  }
+
+  VoiceCallApiClient getVoiceCallApiClient() {
+    return voiceCallApiClient;
+  }
+
+  ToolCallExecutor getToolCallExecutor() {
+    return toolCallExecutor;
+  }
+
+  ToolResultCache getToolResultCache() {
+    return toolResultCache;
+  }
+
+  CallBridgeRegistry getCallBridgeRegistry() {
+    return callBridgeRegistry;
+  }
+
+  OpenAiRealtimeConnector getOpenAiRealtimeConnector() {
+    return openAiRealtimeConnector;
+  }
+
+  RealtimeSessionPool getRealtimeSessionPool() {
+    return realtimeSessionPool;
+  }
+
+  AssistantProfiles getAssistantProfiles() {
+    return assistantProfiles;
+  }
+
+  boolean isAudioPassthrough() {
+    return audioPassthrough;
+  }
+
+  TwilioOutboundQueue newOutboundQueue(WebSocketSession twilioSession, LongConsumer markDropped) {
+    return new TwilioOutboundQueue(twilioSession, twilioWriterPool, maxQueuedAudio, overflowPolicy, sendTimeoutMs,
+            twilioOutboundStats, markDropped);
+  }
+
+  /**
+   * Returns a pacer feeding a call's outbound queue, or {@code null} when pacing is off.
+   */
+  OutboundPacer newOutboundPacer(TwilioOutboundQueue outboundQueue) {
+    if (!pacingEnabled) {
+      return null;
+    }
+    return new OutboundPacer(outboundQueue, pacingTimer, pacingLeadMs, twilioOutboundStats);
+  }
+
+  /**
+   * Returns a new gate for a call, or {@code null} when local VAD is off.
+   */
+  VoiceActivityGate newVoiceActivityGate() {
+    if (!vadEnabled) {
+      return null;
+    }
+    return new VoiceActivityGate(vadThresholdDbfs, vadHangoverMs / TWILIO_FRAME_MS, vadPrerollMs / TWILIO_FRAME_MS,
+            vadKeepAliveMs / TWILIO_FRAME_MS, inboundAudioStats);
+  }
+
+  Timer getResponseLatency() {
+    return responseLatency;
+  }
+
+  CallRecorder getCallRecorder() {
+    return callRecorder;
+  }
+
+  ConversationLog getConversationLog() {
+    return conversationLog;
+  }
+
+  InboundAudioStats getInboundAudioStats() {
+    return inboundAudioStats;
+  }
+
+  /**
+   * Coalescing is on when the configured window holds more than one 20 ms Twilio frame.
+   */
+  boolean isInboundCoalescing() {
+    return inboundWindowBytes > TWILIO_FRAME_BYTES;
+  }
+
+  int getInboundWindowBytes() {
+    return inboundWindowBytes;
+  }
+
+  long getInboundMaxLatencyNanos() {
+    return TimeUnit.MILLISECONDS.toNanos(inboundMaxLatencyMs);
+  }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the live {@link CallBridge} of every connected Twilio media stream, keyed by the Spring
+ * {@code WebSocketSession} id and, once Twilio sends its {@code start} event, by {@code streamSid}.
+ */
+@Component
+@Slf4j
+public class CallBridgeRegistry {
+  private final ConcurrentMap<String, CallBridge> bySessionId = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, CallBridge> byStreamSid = new ConcurrentHashMap<>();
+
+  public void register(CallBridge bridge) {
+    CallBridge previous = bySessionId.put(bridge.getSessionId(), bridge);
+    if (previous != null && previous != bridge) {
+      log.info("Replacing stale bridge for session " + bridge.getSessionId());
+      previous.close();
+    }
+  }
+
+  public void bindStreamSid(String streamSid, CallBridge bridge) {
+    if (streamSid != null) {
+      byStreamSid.put(streamSid, bridge);
+    }
+  }
+
+  public CallBridge getBySessionId(String sessionId) {
+    return bySessionId.get(sessionId);
+  }
+
+  public CallBridge getByStreamSid(String streamSid) {
+    return byStreamSid.get(streamSid);
+  }
+
+  /**
+   * Removes the bridge of a hung-up session and releases its upstream connection.
+   */
+  public CallBridge remove(String sessionId) {
+    CallBridge bridge = bySessionId.remove(sessionId);
+    if (bridge != null) {
+      String streamSid = bridge.getStreamSid();
+      if (streamSid != null) {
+        byStreamSid.remove(streamSid, bridge);
+      }
+      bridge.close();
+    }
+    return bridge;
+  }
+
+  public int activeCalls() {
+    return bySessionId.size();
+  }
+
+  public Collection<CallBridge> activeBridges() {
+    return Collections.unmodifiableCollection(bySessionId.values());
+  }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records both audio directions of every call for QA without putting disk I/O on the media path. Bridge
+ * threads append decoded μ-law to per-call rings of {@code recording.buffer-ms}; a single writer thread
+ * drains them every {@code recording.flush-interval-ms} into memory-mapped files preallocated for
+ * {@code recording.max-seconds}, and writes the WAV headers after hangup. When the disk falls behind the
+ * rings fill up and further audio is dropped and counted rather than waited for.
+ */
+@Component
+@Slf4j
+public class CallRecorder {
+  private static final int MULAW_BYTES_PER_MS = 8;
+  // Twilio's Stream SID format. The name comes from the unauthenticated media socket and ends up in a path.
+  private static final Pattern STREAM_SID = Pattern.compile("MZ[0-9a-f]{32}");
+
+  private final boolean enabled;
+  private final Path directory;
+  private final int bufferBytes;
+  private final int maxBytes;
+  private final long flushIntervalMs;
+  private final Set<CallRecording> active = ConcurrentHashMap.newKeySet();
+  private final AtomicLong droppedInbound = new AtomicLong();
+  private final AtomicLong droppedOutbound = new AtomicLong();
+  private final AtomicLong recordedBytes = new AtomicLong();
+  private final AtomicLong finished = new AtomicLong();
+  private ScheduledExecutorService writer;
+
+  public CallRecorder(@Value("${recording.enabled:false}") boolean enabled,
+                      @Value("${recording.directory:recordings}") String directory,
+                      @Value("${recording.buffer-ms:4000}") int bufferMs,
+                      @Value("${recording.max-seconds:1800}") int maxSeconds,
+                      @Value("${recording.flush-interval-ms:100}") long flushIntervalMs) {
+    this.enabled = enabled;
+    this.directory = Paths.get(directory);
+    this.bufferBytes = bufferMs * MULAW_BYTES_PER_MS;
+    this.maxBytes = maxSeconds * 1000 * MULAW_BYTES_PER_MS;
+    this.flushIntervalMs = flushIntervalMs;
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    Files.createDirectories(directory);
+    writer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "call-recorder");
+      thread.setDaemon(true);
+      return thread;
+    });
+    writer.scheduleWithFixedDelay(this::drainAll, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    log.info("Recording calls to " + directory.toAbsolutePath());
+  }
+
+  /**
+   * Stops the writer and finalizes the recordings of calls still in progress.
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (writer == null) {
+      return;
+    }
+    writer.shutdown();
+    writer.awaitTermination(5, TimeUnit.SECONDS);
+    for (CallRecording recording : active) {
+      recording.close();
+    }
+    drainAll();
+  }
+
+  /**
+   * Starts recording a call under its {@code streamSid}, or returns {@code null} when recording is off or
+   * the sid is not one Twilio would issue.
+   */
+  CallRecording start(String name) {
+    if (!enabled || name == null) {
+      return null;
+    }
+    if (!STREAM_SID.matcher(name).matches()) {
+      log.info("Not recording stream with unexpected sid " + JsonUtils.getJson(name));
+      return null;
+    }
+    CallRecording recording = new CallRecording(name, directory, bufferBytes, maxBytes, droppedInbound, droppedOutbound);
+    active.add(recording);
+    return recording;
+  }
+
+  private void drainAll() {
+    for (CallRecording recording : active) {
+      try {
+        // Read before draining, so everything appended before the hangup is in the last drain
+        boolean closed = recording.isClosed();
+        recordedBytes.addAndGet(recording.drain());
+        if (closed) {
+          active.remove(recording);
+          recording.finish();
+          finished.incrementAndGet();
+          log.info("Recording " + recording.getName() + " saved: " + recording.getRecordedBytes() + " bytes, dropped "
+                  + recording.getDroppedBytes());
+        }
+      } catch (RuntimeException e) {
+        log.info("Recording " + recording.getName() + " failed: " + e);
+        active.remove(recording);
+      }
+    }
+  }
+
+  public int activeRecordings() {
+    return active.size();
+  }
+
+  public long getRecordedBytes() {
+    return recordedBytes.get();
+  }
+
+  public long getFinished() {
+    return finished.get();
+  }
+
+  public long getDroppedInboundBytes() {
+    return droppedInbound.get();
+  }
+
+  public long getDroppedOutboundBytes() {
+    return droppedOutbound.get();
+  }
+}
@@ -0,0 +1,213 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The recording of one call: a μ-law track per audio direction. Bridge threads only decode into each
+ * track's {@link AudioRingBuffer}; the {@link CallRecorder} writer thread does all file work, draining the
+ * rings into memory-mapped files and writing the WAV headers once the call has ended.
+ */
+@Slf4j
+final class CallRecording {
+  private final String name;
+  private final Track inbound;
+  private final Track outbound;
+  private volatile boolean closed;
+
+  CallRecording(String name, Path directory, int bufferBytes, int maxBytes,
+                AtomicLong droppedInbound, AtomicLong droppedOutbound) {
+    this.name = name;
+    this.inbound = new Track(directory.resolve(name + "-inbound.wav"), bufferBytes, maxBytes, droppedInbound);
+    this.outbound = new Track(directory.resolve(name + "-outbound.wav"), bufferBytes, maxBytes, droppedOutbound);
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Caller audio, appended from the thread handling the Twilio session.
+   */
+  Track inbound() {
+    return inbound;
+  }
+
+  /**
+   * Assistant audio, appended from the upstream read thread.
+   */
+  Track outbound() {
+    return outbound;
+  }
+
+  /**
+   * Marks the call as hung up; the writer finalizes the files on its next pass. Safe from any thread.
+   */
+  void close() {
+    closed = true;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Writer thread: moves buffered audio of both tracks to their files and returns the bytes written.
+   */
+  long drain() {
+    return inbound.drain() + outbound.drain();
+  }
+
+  /**
+   * Writer thread: completes both files. Call after a last {@link #drain()}.
+   */
+  void finish() {
+    inbound.finish();
+    outbound.finish();
+  }
+
+  long getRecordedBytes() {
+    return inbound.recorded + outbound.recorded;
+  }
+
+  long getDroppedBytes() {
+    return inbound.dropped.get() + outbound.dropped.get();
+  }
+
+  static final class Track {
+    // RIFF header, an 18 byte fmt chunk, the fact chunk non-PCM formats carry, and the data chunk header
+    static final int WAV_HEADER_BYTES = 58;
+    private static final short WAVE_FORMAT_MULAW = 7;
+    private static final int SAMPLE_RATE = 8000;
+
+    private final Path file;
+    private final AudioRingBuffer ring;
+    private final int maxBytes;
+    private final AtomicLong totalDropped;
+    private final AtomicLong dropped = new AtomicLong();
+    private byte[] scratch = new byte[1024];
+    // Writer thread only
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private boolean failed;
+    private long recorded;
+
+    private Track(Path file, int bufferBytes, int maxBytes, AtomicLong totalDropped) {
+      this.file = file;
+      this.ring = new AudioRingBuffer(bufferBytes);
+      this.maxBytes = maxBytes;
+      this.totalDropped = totalDropped;
+    }
+
+    /**
+     * Producer side: decodes base64 μ-law audio and queues it for the writer. Never blocks; audio that
+     * does not fit in the ring, or is not valid base64, is counted as dropped.
+     */
+    void appendBase64(CharSequence base64, int start, int end) {
+      int maxLength = AudioBase64.maxDecodedLength(end - start);
+      if (scratch.length < maxLength) {
+        scratch = new byte[maxLength];
+      }
+      int length;
+      try {
+        length = AudioBase64.decode(base64, start, end, scratch, 0);
+      } catch (IllegalArgumentException e) {
+        // Counted at the size the payload would have decoded to
+        drop((end - start) / 4 * 3);
+        return;
+      }
+      if (!ring.offer(scratch, 0, length)) {
+        drop(length);
+      }
+    }
+
+    private void drop(int bytes) {
+      dropped.addAndGet(bytes);
+      totalDropped.addAndGet(bytes);
+    }
+
+    private long drain() {
+      if (!failed && mapped == null) {
+        open();
+      }
+      if (failed || !mapped.hasRemaining()) {
+        // No file to write to, or the preallocated length is used up
+        drop(ring.discard());
+        return 0;
+      }
+      int written = ring.drainTo(mapped);
+      recorded += written;
+      return written;
+    }
+
+    private void open() {
+      try {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapping past the end grows the file to its full length up front
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, WAV_HEADER_BYTES + (long) maxBytes);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        mapped.position(WAV_HEADER_BYTES);
+      } catch (IOException e) {
+        log.info("Could not open recording " + file + ": " + e);
+        failed = true;
+        closeChannel();
+      }
+    }
+
+    private void finish() {
+      if (mapped == null) {
+        return;
+      }
+      int dataBytes = mapped.position() - WAV_HEADER_BYTES;
+      writeHeader(dataBytes);
+      try {
+        mapped.force();
+        channel.truncate(WAV_HEADER_BYTES + (long) dataBytes);
+      } catch (IOException e) {
+        log.info("Could not finalize recording " + file + ": " + e);
+      }
+      mapped = null;
+      closeChannel();
+    }
+
+    private void writeHeader(int dataBytes) {
+      mapped.position(0);
+      mapped.put((byte) 'R').put((byte) 'I').put((byte) 'F').put((byte) 'F');
+      mapped.putInt(WAV_HEADER_BYTES - 8 + dataBytes);
+      mapped.put((byte) 'W').put((byte) 'A').put((byte) 'V').put((byte) 'E');
+      mapped.put((byte) 'f').put((byte) 'm').put((byte) 't').put((byte) ' ');
+      mapped.putInt(18);
+      mapped.putShort(WAVE_FORMAT_MULAW);
+      mapped.putShort((short) 1);
+      mapped.putInt(SAMPLE_RATE);
+      mapped.putInt(SAMPLE_RATE);
+      mapped.putShort((short) 1);
+      mapped.putShort((short) 8);
+      mapped.putShort((short) 0);
+      mapped.put((byte) 'f').put((byte) 'a').put((byte) 'c').put((byte) 't');
+      mapped.putInt(4);
+      mapped.putInt(dataBytes);
+      mapped.put((byte) 'd').put((byte) 'a').put((byte) 't').put((byte) 'a');
+      mapped.putInt(dataBytes);
+    }
+
+    private void closeChannel() {
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          log.info("Could not close recording " + file + ": " + e);
+        }
+        channel = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the bridge node a new call streams to: among healthy nodes that are not draining and below their
+ * call limit, the one with the fewest active calls, counting calls routed to it since its last status
+ * report. Reports older than {@code bridge.routing.stale-after-ms} do not count. With no eligible node the
+ * call stays on this node if it can reserve a slot for it, and is turned away otherwise. A call sent to
+ * this node holds its slot in {@link AdmissionControl} until its stream connects.
+ */
+@Component
+@Slf4j
+public class CallRouter {
+  private final NodeRegistry nodeRegistry;
+  private final LocalNode localNode;
+  private final AdmissionControl admissionControl;
+  private final long staleAfterNanos;
+  private final MeterRegistry meterRegistry;
+  private final AtomicInteger rotation = new AtomicInteger();
+
+  public CallRouter(NodeRegistry nodeRegistry, LocalNode localNode, AdmissionControl admissionControl,
+                    @Value("${bridge.routing.stale-after-ms:5000}") long staleAfterMs,
+                    MeterRegistry meterRegistry) {
+    this.nodeRegistry = nodeRegistry;
+    this.localNode = localNode;
+    this.admissionControl = admissionControl;
+    this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(staleAfterMs);
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Returns the stream URL for a new call, or {@code null} when no node has room for it.
+   */
+  public String route() {
+    long now = System.nanoTime();
+    BridgeNode best = null;
+    int bestLoad = Integer.MAX_VALUE;
+    // Start the scan at a different node each time, so equal loads spread instead of favouring the first
+    BridgeNode[] nodes = nodeRegistry.nodes().toArray(new BridgeNode[0]);
+    int start = nodes.length == 0 ? 0 : Math.floorMod(rotation.getAndIncrement(), nodes.length);
+    for (int i = 0; i < nodes.length; i++) {
+      BridgeNode node = nodes[(start + i) % nodes.length];
+      NodeStatus status = node.getStatus();
+      if (status == null || now - node.getUpdatedAtNanos() > staleAfterNanos) {
+        continue;
+      }
+      int load = node.load();
+      if (status.admits(load) && load < bestLoad) {
+        best = node;
+        bestLoad = load;
+      }
+    }
+    if (best == null) {
+      if (!admissionControl.tryReserve()) {
+        return null;
+      }
+      meterRegistry.counter("bridge.routing.calls", "node", "fallback").increment();
+      return localNode.getStreamUrl();
+    }
+    NodeStatus status = best.getStatus();
+    // The status this node reports counts its reservations, so another webhook sees this call right away;
+    // losing the race for the last slot turns the call away rather than closing its stream later
+    if (status.getNode().equals(localNode.getId()) && !admissionControl.tryReserve()) {
+      return null;
+    }
+    best.routed();
+    meterRegistry.counter("bridge.routing.calls", "node", status.getNode()).increment();
+    return status.getStreamUrl();
+  }
+}
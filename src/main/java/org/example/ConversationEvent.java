@@ -0,0 +1,74 @@
+package org.example;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One line of the {@link ConversationLog}: something said or done in a call, stamped with the wall clock
+ * time it was logged.
+ */
+public final class ConversationEvent {
+  /** What the caller said, from {@code conversation.item.input_audio_transcription.completed}. */
+  public static final String CALLER_TRANSCRIPT = "caller_transcript";
+  /** What the assistant said, from {@code response.audio_transcript.done}. */
+  public static final String ASSISTANT_TRANSCRIPT = "assistant_transcript";
+  /** The raw arguments of a tool call; {@code ref} is the tool's {@code call_id}. */
+  public static final String FUNCTION_CALL = "function_call";
+  /** What the tool answered; {@code ref} is the tool's {@code call_id}. */
+  public static final String TOOL_RESULT = "tool_result";
+
+  @JsonProperty("ts")
+  private long timestamp;
+  @JsonProperty("call")
+  private String call;
+  @JsonProperty("type")
+  private String type;
+  @JsonProperty("ref")
+  private String ref;
+  @JsonProperty("text")
+  private String text;
+
+  private ConversationEvent() {
+  }
+
+  public ConversationEvent(long timestamp, String call, String type, String ref, String text) {
+    this.timestamp = timestamp;
+    this.call = call;
+    this.type = type;
+    this.ref = ref;
+    this.text = text;
+  }
+
+  /**
+   * Epoch milliseconds.
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * The Twilio {@code streamSid} of the call.
+   */
+  public String getCall() {
+    return call;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * The realtime {@code item_id} of a transcript or the {@code call_id} of a tool call.
+   */
+  public String getRef() {
+    return ref;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  @Override
+  public String toString() {
+    return "{ts=" + timestamp + ", call=" + call + ", type=" + type + ", ref=" + ref + ", text=" + text + "}";
+  }
+}
@@ -0,0 +1,221 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only log of what was said and done in every call: transcripts of both sides, tool call arguments
+ * and tool results, one JSON object per line. Bridge threads only offer events to a bounded queue and
+ * never wait; when it is full the event is dropped and counted. A single writer thread takes whatever has
+ * queued up, writes it as one batch and syncs at most every {@code conversation-log.fsync-interval-ms}
+ * (0 syncs every batch, a negative value leaves it to the OS), so concurrent calls share each write and
+ * each sync. Files roll over at {@code conversation-log.segment-bytes}, and every start opens a new
+ * segment, so written segments are never modified. {@link ConversationLogReader} reads them back.
+ */
+@Component
+@Slf4j
+public class ConversationLog {
+  static final String SEGMENT_PREFIX = "conversation-";
+  static final String SEGMENT_SUFFIX = ".jsonl";
+
+  private final boolean enabled;
+  private final Path directory;
+  private final long segmentBytes;
+  private final long fsyncIntervalMs;
+  private final int batchSize;
+  private final BlockingQueue<ConversationEvent> queue;
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong syncs = new AtomicLong();
+  private volatile boolean running;
+  private Thread writer;
+  // Writer thread only
+  private final StringBuilder lines = new StringBuilder(8192);
+  private FileChannel segment;
+  private long segmentSequence;
+  private long segmentWritten;
+  private boolean unsynced;
+  private long lastSyncNanos;
+
+  public ConversationLog(@Value("${conversation-log.enabled:false}") boolean enabled,
+                         @Value("${conversation-log.directory:conversation-log}") String directory,
+                         @Value("${conversation-log.segment-bytes:67108864}") long segmentBytes,
+                         @Value("${conversation-log.fsync-interval-ms:1000}") long fsyncIntervalMs,
+                         @Value("${conversation-log.queue-capacity:10000}") int queueCapacity,
+                         @Value("${conversation-log.batch-size:512}") int batchSize) {
+    this.enabled = enabled;
+    this.directory = Paths.get(directory);
+    this.segmentBytes = segmentBytes;
+    this.fsyncIntervalMs = fsyncIntervalMs;
+    this.batchSize = batchSize;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    Files.createDirectories(directory);
+    for (Path existing : ConversationLogReader.segments(directory)) {
+      segmentSequence = Math.max(segmentSequence, ConversationLogReader.sequenceOf(existing));
+    }
+    running = true;
+    writer = new Thread(this::writeLoop, "conversation-log");
+    writer.setDaemon(true);
+    writer.start();
+    log.info("Logging conversations to " + directory.toAbsolutePath());
+  }
+
+  /**
+   * Writes out what is still queued and closes the current segment.
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (writer == null) {
+      return;
+    }
+    running = false;
+    writer.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Queues an event for the writer. Never blocks; returns {@code false} when the event was dropped.
+   */
+  public boolean append(String call, String type, String ref, String text) {
+    if (!enabled) {
+      return false;
+    }
+    if (queue.offer(new ConversationEvent(System.currentTimeMillis(), call, type, ref, text))) {
+      return true;
+    }
+    dropped.incrementAndGet();
+    return false;
+  }
+
+  private void writeLoop() {
+    List<ConversationEvent> batch = new ArrayList<>(batchSize);
+    long pollMs = fsyncIntervalMs > 0 ? fsyncIntervalMs : 100;
+    try {
+      while (running || !queue.isEmpty()) {
+        ConversationEvent first = queue.poll(pollMs, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, batchSize - 1);
+          write(batch);
+          batch.clear();
+        }
+        if (unsynced && fsyncIntervalMs >= 0
+                && System.nanoTime() - lastSyncNanos >= TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs)) {
+          sync();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      closeSegment();
+    }
+  }
+
+  private void write(List<ConversationEvent> batch) {
+    lines.setLength(0);
+    for (ConversationEvent event : batch) {
+      lines.append(JsonUtils.getJson(event)).append('\n');
+    }
+    ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+    try {
+      if (segment == null || segmentWritten > 0 && segmentWritten + bytes.remaining() > segmentBytes) {
+        rollSegment();
+      }
+      while (bytes.hasRemaining()) {
+        segmentWritten += segment.write(bytes);
+      }
+      unsynced = true;
+      written.addAndGet(batch.size());
+      batches.incrementAndGet();
+    } catch (IOException e) {
+      log.info("Could not write " + batch.size() + " conversation events: " + e);
+      dropped.addAndGet(batch.size());
+      // Start over in a fresh segment rather than append after a partial write
+      closeSegment();
+    }
+  }
+
+  private void rollSegment() throws IOException {
+    closeSegment();
+    segmentSequence++;
+    Path file = directory.resolve(ConversationLogReader.segmentName(segmentSequence));
+    segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    segmentWritten = 0;
+  }
+
+  private void sync() {
+    try {
+      segment.force(false);
+      syncs.incrementAndGet();
+    } catch (IOException e) {
+      log.info("Could not sync conversation log: " + e);
+    }
+    unsynced = false;
+    lastSyncNanos = System.nanoTime();
+  }
+
+  private void closeSegment() {
+    if (segment == null) {
+      return;
+    }
+    if (unsynced && fsyncIntervalMs >= 0) {
+      sync();
+    }
+    try {
+      segment.close();
+    } catch (IOException e) {
+      log.info("Could not close conversation log segment: " + e);
+    }
+    segment = null;
+    unsynced = false;
+  }
+
+  public long getWritten() {
+    return written.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  public long getBatches() {
+    return batches.get();
+  }
+
+  public long getSyncs() {
+    return syncs.get();
+  }
+
+  public int getQueued() {
+    return queue.size();
+  }
+}
@@ -0,0 +1,95 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the segments a {@link ConversationLog} wrote, oldest first, for post-call analytics. Needs no
+ * Spring context, so it can run against a copy of the directory. A line cut short by a crash is skipped.
+ */
+public final class ConversationLogReader {
+  private final Path directory;
+
+  public ConversationLogReader(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Passes every event of every segment to {@code consumer} in the order they were written.
+   */
+  public void forEach(Consumer<ConversationEvent> consumer) throws IOException {
+    for (Path segment : segments(directory)) {
+      try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          ConversationEvent event = parse(line);
+          if (event != null) {
+            consumer.accept(event);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The events of one call, by {@code streamSid}, in the order they happened.
+   */
+  public List<ConversationEvent> readCall(String call) throws IOException {
+    List<ConversationEvent> events = new ArrayList<>();
+    forEach(event -> {
+      if (call.equals(event.getCall())) {
+        events.add(event);
+      }
+    });
+    return events;
+  }
+
+  private static ConversationEvent parse(String line) {
+    if (line.isEmpty() || !JsonUtils.isValidJsonObject(line)) {
+      return null;
+    }
+    return JsonUtils.parseJsonResponse(line, ConversationEvent.class);
+  }
+
+  /**
+   * The segment files in {@code directory}, oldest first.
+   */
+  static List<Path> segments(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return new ArrayList<>();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> sequenceOf(file) > 0)
+              .sorted((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+              .collect(Collectors.toList());
+    }
+  }
+
+  static String segmentName(long sequence) {
+    return String.format("%s%08d%s", ConversationLog.SEGMENT_PREFIX, sequence, ConversationLog.SEGMENT_SUFFIX);
+  }
+
+  /**
+   * The sequence number in a segment's file name, or 0 when the file is not a segment.
+   */
+  static long sequenceOf(Path file) {
+    String name = file.getFileName().toString();
+    if (!name.startsWith(ConversationLog.SEGMENT_PREFIX) || !name.endsWith(ConversationLog.SEGMENT_SUFFIX)) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(name.substring(ConversationLog.SEGMENT_PREFIX.length(),
+              name.length() - ConversationLog.SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/drain}: GET shows the admission state, POST {@code {"draining": true}} stops admitting
+ * calls ahead of a deploy and {@code false} resumes. Only reachable once {@code drain} is added to
+ * {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "drain")
+public class DrainEndpoint {
+  private final AdmissionControl admissionControl;
+
+  public DrainEndpoint(AdmissionControl admissionControl) {
+    this.admissionControl = admissionControl;
+  }
+
+  @ReadOperation
+  public Map<String, Object> state() {
+    Map<String, Object> state = new LinkedHashMap<>();
+    state.put("draining", admissionControl.isDraining());
+    state.put("activeCalls", admissionControl.getAdmitted());
+    state.put("maxCalls", admissionControl.getMaxCalls());
+    return state;
+  }
+
+  @WriteOperation
+  public Map<String, Object> setDraining(boolean draining) {
+    admissionControl.setDraining(draining);
+    return state();
+  }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Gathers the 20 ms μ-law frames of one call into larger {@code input_audio_buffer.append} messages.
+ * A message goes out once the window is full, when the oldest buffered frame reaches the latency
+ * deadline, or when the stream stops. Frames arrive on the Twilio session thread and deadline flushes
+ * come from a shared timer, so every method is synchronized.
+ */
+final class InboundAudioCoalescer {
+  private static final String APPEND_PREFIX = "{\"type\":\"input_audio_buffer.append\",\"audio\":\"";
+  private static final String APPEND_SUFFIX = "\"}";
+
+  private final int windowBytes;
+  private final long maxLatencyNanos;
+  private final InboundAudioStats stats;
+  private final Consumer<String> sender;
+  private final StringBuilder message;
+  private byte[] pending;
+  private int pendingLength;
+  private long firstFrameAtNanos;
+
+  InboundAudioCoalescer(int windowBytes, long maxLatencyNanos, InboundAudioStats stats, Consumer<String> sender) {
+    this.windowBytes = windowBytes;
+    this.maxLatencyNanos = maxLatencyNanos;
+    this.stats = stats;
+    this.sender = sender;
+    this.pending = new byte[windowBytes * 2];
+    this.message = new StringBuilder(APPEND_PREFIX.length() + windowBytes * 2 + APPEND_SUFFIX.length());
+  }
+
+  /**
+   * Adds a frame's base64 payload. A payload that is not valid base64 is dropped and counted; it cannot be
+   * re-encoded into the window, and one bad frame must not end the call.
+   */
+  synchronized void add(CharSequence base64Payload) {
+    int needed = pendingLength + AudioBase64.maxDecodedLength(base64Payload.length());
+    if (needed > pending.length) {
+      pending = Arrays.copyOf(pending, Math.max(needed, pending.length * 2));
+    }
+    int decoded;
+    try {
+      decoded = AudioBase64.decode(base64Payload, pending, pendingLength);
+    } catch (IllegalArgumentException e) {
+      stats.frameMalformed();
+      return;
+    }
+    long now = System.nanoTime();
+    if (pendingLength == 0) {
+      firstFrameAtNanos = now;
+    }
+    pendingLength += decoded;
+    if (pendingLength >= windowBytes || now - firstFrameAtNanos >= maxLatencyNanos) {
+      flush(now);
+    }
+  }
+
+  synchronized void flushIfDue(long now) {
+    if (pendingLength > 0 && now - firstFrameAtNanos >= maxLatencyNanos) {
+      flush(now);
+    }
+  }
+
+  synchronized void flush() {
+    if (pendingLength > 0) {
+      flush(System.nanoTime());
+    }
+  }
+
+  private void flush(long now) {
+    message.setLength(0);
+    message.append(APPEND_PREFIX);
+    AudioBase64.encode(pending, 0, pendingLength, message);
+    message.append(APPEND_SUFFIX);
+    pendingLength = 0;
+    stats.messageSent(now - firstFrameAtNanos);
+    sender.accept(message.toString());
+  }
+}
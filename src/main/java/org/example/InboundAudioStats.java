@@ -0,0 +1,88 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-wide counters for caller audio on its way upstream: how many Twilio frames arrived, how many the
+ * voice activity gate kept back, how many {@code input_audio_buffer.append} messages the rest became, and
+ * how long coalescing held audio back.
+ */
+@Component
+public class InboundAudioStats {
+  private final AtomicLong framesIn = new AtomicLong();
+  private final AtomicLong messagesOut = new AtomicLong();
+  private final AtomicLong heldNanos = new AtomicLong();
+  private final AtomicLong framesSuppressed = new AtomicLong();
+  private final AtomicLong framesMalformed = new AtomicLong();
+
+  void frameReceived() {
+    framesIn.incrementAndGet();
+  }
+
+  void frameSuppressed() {
+    framesSuppressed.incrementAndGet();
+  }
+
+  /**
+   * A held silent frame was sent after all, as pre-roll ahead of speech.
+   */
+  void frameUnsuppressed() {
+    framesSuppressed.decrementAndGet();
+  }
+
+  /**
+   * A frame whose payload was not valid base64 was dropped.
+   */
+  void frameMalformed() {
+    framesMalformed.incrementAndGet();
+  }
+
+  void messageSent(long heldForNanos) {
+    messagesOut.incrementAndGet();
+    heldNanos.addAndGet(heldForNanos);
+  }
+
+  public long getFramesIn() {
+    return framesIn.get();
+  }
+
+  public long getFramesSuppressed() {
+    return framesSuppressed.get();
+  }
+
+  public long getFramesMalformed() {
+    return framesMalformed.get();
+  }
+
+  /**
+   * Share of inbound frames that never went upstream because they were silence.
+   */
+  public double getSuppressionRatio() {
+    long frames = framesIn.get();
+    return frames == 0 ? 0 : (double) framesSuppressed.get() / frames;
+  }
+
+  public long getMessagesOut() {
+    return messagesOut.get();
+  }
+
+  /**
+   * Average number of Twilio frames carried by each upstream append message.
+   */
+  public double getFramesPerMessage() {
+    long messages = messagesOut.get();
+    return messages == 0 ? 0 : (double) framesIn.get() / messages;
+  }
+
+  /**
+   * Average delay coalescing added to the first frame of each upstream message, which is what it costs in
+   * speech-start latency.
+   */
+  public double getAverageHeldMillis() {
+    long messages = messagesOut.get();
+    return messages == 0 ? 0 : (double) heldNanos.get() / messages / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -0,0 +1,78 @@
+package org.example;
+
+import com.twilio.twiml.VoiceResponse;
+import com.twilio.twiml.voice.Connect;
+import com.twilio.twiml.voice.Hangup;
+import com.twilio.twiml.voice.Parameter;
+import com.twilio.twiml.voice.Pause;
+import com.twilio.twiml.voice.Say;
+import com.twilio.twiml.voice.Stream;
+
+/**
+ * The {@code /incoming-call} TwiML, rendered once through the Twilio builders with placeholders and split
+ * around them, so each webhook only concatenates the static parts with the escaped stream URL and profile.
+ * The overflow answer for calls no node has room for never changes and is rendered whole.
+ */
+final class IncomingCallTwiml {
+  private static final String URL_PLACEHOLDER = "STREAM_URL_PLACEHOLDER";
+  private static final String PROFILE_PLACEHOLDER = "PROFILE_PLACEHOLDER";
+
+  private final String beforeUrl;
+  private final String beforeProfile;
+  private final String afterProfile;
+  private final String overflow;
+
+  IncomingCallTwiml() {
+    Stream stream = new Stream.Builder()
+            .url(URL_PLACEHOLDER)
+            .parameter(new Parameter.Builder().name(TwilloResource.PROFILE_PARAMETER).value(PROFILE_PLACEHOLDER).build())
+            .build();
+    Connect connect = new Connect.Builder().stream(stream).build();
+    String xml = new VoiceResponse.Builder()
+            .say(new Say.Builder("Connecting you to the AI assistant").build())
+            .pause(new Pause.Builder().length(1).build())
+            .say(new Say.Builder("We can chat now").build())
+            .connect(connect).build()
+            .toXml();
+    int url = xml.indexOf(URL_PLACEHOLDER);
+    int profile = xml.indexOf(PROFILE_PLACEHOLDER);
+    this.beforeUrl = xml.substring(0, url);
+    this.beforeProfile = xml.substring(url + URL_PLACEHOLDER.length(), profile);
+    this.afterProfile = xml.substring(profile + PROFILE_PLACEHOLDER.length());
+    this.overflow = new VoiceResponse.Builder()
+            .say(new Say.Builder("All of our assistants are busy right now. Please call again in a few minutes.").build())
+            .hangup(new Hangup.Builder().build())
+            .build()
+            .toXml();
+  }
+
+  String render(String streamUrl, String profile) {
+    StringBuilder xml = new StringBuilder(beforeUrl.length() + beforeProfile.length() + afterProfile.length() + 128);
+    xml.append(beforeUrl);
+    appendEscaped(xml, streamUrl);
+    xml.append(beforeProfile);
+    appendEscaped(xml, profile);
+    return xml.append(afterProfile).toString();
+  }
+
+  String overflow() {
+    return overflow;
+  }
+
+  private static void appendEscaped(StringBuilder xml, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '&') {
+        xml.append("&amp;");
+      } else if (c == '<') {
+        xml.append("&lt;");
+      } else if (c == '>') {
+        xml.append("&gt;");
+      } else if (c == '"') {
+        xml.append("&quot;");
+      } else {
+        xml.append(c);
+      }
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+/**
+ * {@link OpenAiRealtimeConnection} on a Java-WebSocket client, which reads and writes on threads of its own.
+ */
+class JavaWebSocketConnection extends OpenAiRealtimeConnection {
+  private final Client client;
+  private final CountDownLatch handshakeDone = new CountDownLatch(1);
+
+  JavaWebSocketConnection(URI uri, Map<String, String> headers, AssistantProfile profile) {
+    super(profile);
+    this.client = new Client(uri, headers);
+  }
+
+  @Override
+  public boolean isOpen() {
+    return client.isOpen();
+  }
+
+  @Override
+  public void send(String text) {
+    client.send(text);
+  }
+
+  @Override
+  public void send(byte[] data) {
+    client.send(data);
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+
+  boolean connectBlocking(long timeoutMs) throws InterruptedException {
+    return client.connectBlocking(timeoutMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Like {@link #connectBlocking(long)}, but runs the socket's read loop on a thread from {@code readLoop}
+   * instead of a new platform thread, so it can run on a virtual thread.
+   */
+  boolean connectOn(Executor readLoop, long timeoutMs) throws InterruptedException {
+    readLoop.execute(client);
+    return handshakeDone.await(timeoutMs, TimeUnit.MILLISECONDS) && client.isOpen();
+  }
+
+  private final class Client extends WebSocketClient {
+    Client(URI uri, Map<String, String> headers) {
+      super(uri, headers);
+    }
+
+    @Override
+    public void onOpen(ServerHandshake handshake) {
+      onOpened();
+      handshakeDone.countDown();
+    }
+
+    @Override
+    public void onMessage(String message) {
+      onText(message);
+    }
+
+    @Override
+    public void onMessage(ByteBuffer bytes) {
+      onBinary(bytes);
+    }
+
+    @Override
+    public void onClose(int code, String reason, boolean remote) {
+      handshakeDone.countDown();
+      onClosed(code, reason, remote);
+    }
+
+    @Override
+    public void onError(Exception ex) {
+      onFailure(ex);
+    }
+  }
+}
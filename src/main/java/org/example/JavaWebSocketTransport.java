@@ -0,0 +1,49 @@
+package org.example;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The original transport: one Java-WebSocket client per upstream socket, each with its own read and write
+ * threads. With virtual threads both the connect wait and the read loop run on virtual threads; otherwise
+ * the wait blocks a common-pool thread and the client starts its own read thread.
+ */
+@Component
+@ConditionalOnProperty(name = "openai.transport", havingValue = "java-websocket")
+public class JavaWebSocketTransport implements RealtimeTransport {
+  private final ExecutorService virtualThreads;
+
+  public JavaWebSocketTransport(BridgeThreads bridgeThreads) {
+    this.virtualThreads = bridgeThreads.isVirtual() ? bridgeThreads.newPerTaskExecutor("openai-socket") : null;
+  }
+
+  @Override
+  public OpenAiRealtimeConnection newConnection(URI uri, Map<String, String> headers, AssistantProfile profile) {
+    return new JavaWebSocketConnection(uri, headers, profile);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> connect(OpenAiRealtimeConnection connection, long timeoutMs) {
+    JavaWebSocketConnection socket = (JavaWebSocketConnection) connection;
+    if (virtualThreads != null) {
+      return CompletableFuture.supplyAsync(() -> awaitConnect(socket, timeoutMs), virtualThreads);
+    }
+    return CompletableFuture.supplyAsync(() -> awaitConnect(socket, timeoutMs));
+  }
+
+  private boolean awaitConnect(JavaWebSocketConnection socket, long timeoutMs) {
+    try {
+      return virtualThreads != null
+              ? socket.connectOn(virtualThreads, timeoutMs)
+              : socket.connectBlocking(timeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -6,17 +6,18 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.JsonNodeType;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Rimal on 9/3/2015.
@@ -28,6 +29,23 @@ public class JsonUtils {
   private static final ObjectMapper MAPPER_INCLUDE_NULL;
   private static final JsonFactory JSON_FACTORY;
   private static final String TRANSLATIONS_JSON_KEY = "translations";
+  // Readers and writers are immutable and thread-safe; building them once skips the per-call type
+  // resolution and deserializer lookup of ObjectMapper.readValue and writeValueAsString.
+  private static final ObjectReader STRING_MAP_READER;
+  private static final ObjectReader NESTED_MAP_READER;
+  private static final ObjectWriter WRITER;
+  private static final ObjectWriter WRITER_INCLUDE_NULL;
+  private static final Map<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+  // Parsed translation metadata keyed by content hash, least recently used first. Tenants share a
+  // handful of metadata documents, so a small bound keeps every one of them indexed.
+  private static final int TRANSLATIONS_CACHE_SIZE = 256;
+  private static final Map<Integer, TranslationsEntry> TRANSLATIONS =
+          new LinkedHashMap<Integer, TranslationsEntry>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, TranslationsEntry> eldest) {
+              return size() > TRANSLATIONS_CACHE_SIZE;
+            }
+          };
 
 
   static {
@@ -38,20 +56,80 @@ public class JsonUtils {
     MAPPER_INCLUDE_NULL = new ObjectMapper();
     setDefaultMapperProperties(MAPPER_INCLUDE_NULL);
     MAPPER_INCLUDE_NULL.setSerializationInclusion(JsonInclude.Include.ALWAYS);
+
+    STRING_MAP_READER = MAPPER.readerFor(new TypeReference<Map<String, String>>() {
+    });
+    NESTED_MAP_READER = MAPPER.readerFor(new TypeReference<Map<String, Object>>() {
+    });
+    WRITER = MAPPER.writer();
+    WRITER_INCLUDE_NULL = MAPPER_INCLUDE_NULL.writer();
   }
+  /**
+   * The {@code translations.<locale>} entry of a tenant's translation metadata: the text itself for
+   * strings, the JSON for anything else. Returns {@code null} when the metadata or the locale is missing.
+   */
   public static String getTranslationsForLocale(String locale, String translationMetadata) {
     if (null != translationMetadata) {
-      JSONObject jsonObject = new JSONObject(translationMetadata);
-      if (jsonObject.has(TRANSLATIONS_JSON_KEY)) {
-        jsonObject = (JSONObject) jsonObject.get(TRANSLATIONS_JSON_KEY);
-        if (null != jsonObject && jsonObject.has(locale) && null != jsonObject.get(locale)) {
-          return jsonObject.get(locale).toString();
-        }
-      }
+      return getAllTranslations(translationMetadata).get(locale);
     }
     return null;
   }
 
+  /**
+   * Every locale of a tenant's translation metadata from a single parse. The returned map is shared
+   * between callers and cannot be modified.
+   */
+  public static Map<String, String> getAllTranslations(String translationMetadata) {
+    if (null == translationMetadata) {
+      return Collections.emptyMap();
+    }
+    Integer key = translationMetadata.hashCode();
+    TranslationsEntry entry;
+    synchronized (TRANSLATIONS) {
+      entry = TRANSLATIONS.get(key);
+    }
+    // String.equals checks identity first, so callers holding on to their metadata pay nothing here
+    if (entry != null && entry.metadata.equals(translationMetadata)) {
+      return entry.translations;
+    }
+    entry = new TranslationsEntry(translationMetadata, indexTranslations(translationMetadata));
+    synchronized (TRANSLATIONS) {
+      TRANSLATIONS.put(key, entry);
+    }
+    return entry.translations;
+  }
+
+  private static Map<String, String> indexTranslations(String translationMetadata) {
+    JsonNode root;
+    try {
+      root = MAPPER.readTree(translationMetadata);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid translation metadata", e);
+    }
+    JsonNode translations = root == null ? null : root.get(TRANSLATIONS_JSON_KEY);
+    if (translations == null || !translations.isObject()) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> byLocale = new HashMap<>(translations.size() * 4 / 3 + 1);
+    Iterator<Map.Entry<String, JsonNode>> fields = translations.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      JsonNode value = field.getValue();
+      byLocale.put(field.getKey(), value.isTextual() ? value.textValue() : value.toString());
+    }
+    return Collections.unmodifiableMap(byLocale);
+  }
+
+  private static final class TranslationsEntry {
+    private final String metadata;
+    private final Map<String, String> translations;
+
+    private TranslationsEntry(String metadata, Map<String, String> translations) {
+      this.metadata = metadata;
+      this.translations = translations;
+    }
+  }
+
   private static void setDefaultMapperProperties(ObjectMapper mapper) {
     mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
     mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -64,18 +142,44 @@ public class JsonUtils {
 
   public static boolean isValidJson(final String json) {
     Assert.notNull(json, "Json cannot be null");
-    JsonNode rootNode = getRootJsonNode(json);
-    return Objects.nonNull(rootNode);
+    return firstValueToken(json) != null;
   }
 
   public static boolean isValidJsonArray(final String json) {
-    JsonNode node = getRootJsonNode(json);
-    return Objects.nonNull(node) ? node.isArray() : false;
+    Assert.notNull(json, "Json cannot be null");
+    return firstValueToken(json) == JsonToken.START_ARRAY;
   }
 
   public static boolean isValidJsonObject(final String json) {
-    JsonNode node = getRootJsonNode(json);
-    return Objects.nonNull(node) ? node.isObject() : false;
+    Assert.notNull(json, "Json cannot be null");
+    return firstValueToken(json) == JsonToken.START_OBJECT;
+  }
+
+  /**
+   * Reads the first JSON value in {@code json} the way {@link #getRootJsonNode} does, but skips over it
+   * token by token instead of building a tree. Returns its first token, {@link JsonToken#NOT_AVAILABLE}
+   * for blank input (which {@code readTree} accepts as a missing node), or {@code null} when the value is
+   * malformed or the input is empty.
+   */
+  private static JsonToken firstValueToken(final String json) {
+    if (json.isEmpty()) {
+      return null;
+    }
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      JsonToken first = parser.nextToken();
+      if (first == null) {
+        return JsonToken.NOT_AVAILABLE;
+      }
+      // Scalar strings are decoded lazily; finishing the token still reports an unterminated one
+      parser.finishToken();
+      parser.skipChildren();
+      return first;
+    } catch (JsonParseException e) {
+      return null;
+    } catch (IOException e) {
+      logger.error("Error encountered while checking if json was valid", e);
+      return null;
+    }
   }
 
   public static JsonNode getRootJsonNode(final String json) {
@@ -94,9 +198,14 @@ public class JsonUtils {
   }
 
   public static boolean isJsonArray(String json) {
-    try {
-      JsonNode jsonNode = MAPPER.readTree(json);
-      return jsonNode.getNodeType().equals(JsonNodeType.ARRAY);
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      JsonToken first = parser.nextToken();
+      if (first == null) {
+        return false;
+      }
+      parser.finishToken();
+      parser.skipChildren();
+      return first == JsonToken.START_ARRAY;
     } catch (Exception e) {
       logger.error("Error encountered while parsing json ", e);
     }
@@ -112,42 +221,103 @@ public class JsonUtils {
    */
   public static boolean isValidFormData(final String formStr) {
     Assert.notNull(formStr, "FormStr cannot be null");
-    boolean valid = false;
-    if (formStr != null && !formStr.isEmpty()) {
-      Pattern p = Pattern.compile("\\{(.+=.+,?)+\\}");
-      Matcher m = p.matcher(formStr);
-      if (m.matches()) {
-        valid = true;
+    int last = formStr.length() - 1;
+    if (last < 0 || formStr.charAt(0) != '{' || formStr.charAt(last) != '}') {
+      return false;
+    }
+    for (int i = 1; i < last; i++) {
+      if (isLineTerminator(formStr.charAt(i))) {
+        return false;
       }
     }
-    return valid;
+    return hasInnerEquals(formStr, 0, last);
   }
 
 
+  /**
+   * Reads {@code key=value} pairs from the first line holding a {@code {...}} form, keeping the results of
+   * the earlier {@code \{(.+=.+,?)+\}} regex: the form runs from the line's first '{' to its last '}', and
+   * a pair is kept only when it splits into exactly one key and one non-empty value.
+   */
   public static Map<String, String> getValuesFromHeaderForm(String formStr) {
     Map<String, String> dataMap = new LinkedHashMap<>();
-    if (formStr != null && !formStr.isEmpty()) {
-      Pattern p = Pattern.compile("\\{(.+=.+,?)+\\}");
-      Matcher m = p.matcher(formStr);
-      if (m.find()) {
-        String[] formData = m.group(1).split(",");
-        for (String data : formData) {
-          String[] dataField = data.split("=");
-          if (dataField.length == 2) {
-            dataMap.put(dataField[0], dataField[1]);
-          }
+    if (formStr == null || formStr.isEmpty()) {
+      return dataMap;
+    }
+    int length = formStr.length();
+    int lineStart = 0;
+    while (lineStart < length) {
+      int lineEnd = lineStart;
+      int open = -1;
+      int close = -1;
+      for (; lineEnd < length && !isLineTerminator(formStr.charAt(lineEnd)); lineEnd++) {
+        char c = formStr.charAt(lineEnd);
+        if (c == '{' && open < 0) {
+          open = lineEnd;
+        } else if (c == '}' && open >= 0) {
+          close = lineEnd;
         }
       }
+      if (close > open && hasInnerEquals(formStr, open, close)) {
+        readFormPairs(formStr, open + 1, close, dataMap);
+        return dataMap;
+      }
+      lineStart = lineEnd + 1;
     }
     return dataMap;
   }
 
+  /**
+   * True when the form between {@code open} and {@code close} holds an '=' with at least one character
+   * on each side.
+   */
+  private static boolean hasInnerEquals(String formStr, int open, int close) {
+    for (int i = open + 2; i <= close - 2; i++) {
+      if (formStr.charAt(i) == '=') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void readFormPairs(String formStr, int start, int end, Map<String, String> dataMap) {
+    int pairStart = start;
+    while (pairStart <= end) {
+      int pairEnd = formStr.indexOf(',', pairStart);
+      if (pairEnd < 0 || pairEnd > end) {
+        pairEnd = end;
+      }
+      int equals = formStr.indexOf('=', pairStart);
+      if (equals >= 0 && equals < pairEnd) {
+        int valueEnd = equals + 1;
+        while (valueEnd < pairEnd && formStr.charAt(valueEnd) != '=') {
+          valueEnd++;
+        }
+        // String.split drops trailing empty parts, so "k=v==" still counts as one pair but "k=v=w" does not
+        int rest = valueEnd;
+        while (rest < pairEnd && formStr.charAt(rest) == '=') {
+          rest++;
+        }
+        if (valueEnd > equals + 1 && rest == pairEnd) {
+          dataMap.put(formStr.substring(pairStart, equals), formStr.substring(equals + 1, valueEnd));
+        }
+      }
+      pairStart = pairEnd + 1;
+    }
+  }
+
+  /**
+   * The characters {@code .} does not match in a default {@link java.util.regex.Pattern}.
+   */
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
   public static <T> T parseJsonResponse(String jsonString, Class<T> responseClass) {
     T response = null;
     if (jsonString != null && !jsonString.isEmpty()) {
       try {
-        JsonParser jsonParser = JSON_FACTORY.createParser(jsonString);
-        response = jsonParser.readValueAs(responseClass);
+        response = readerFor(responseClass).readValue(jsonString);
       } catch (IOException e) {
         logger.error("Error encountered while parsing json: " + jsonString + " to class: " + responseClass.getName(), e);
       }
@@ -158,7 +328,7 @@ public class JsonUtils {
   public static <T> T parseJsonResponse(String jsonString, TypeReference<T> typeReference) {
     T response = null;
     try {
-      response = MAPPER.readValue(jsonString, typeReference);
+      response = readerFor(typeReference.getType()).readValue(jsonString);
     } catch (IOException e) {
       logger.error("Error encountered while parsing JSON Response", e);
     }
@@ -175,7 +345,7 @@ public class JsonUtils {
   public static String getJsonIncludeNull(Object object) {
     if (null != object) {
       try {
-        return MAPPER_INCLUDE_NULL.writeValueAsString(object);
+        return WRITER_INCLUDE_NULL.writeValueAsString(object);
       } catch (Exception e) {
         logger.error("Error encountered while getting json for " + object.getClass(), e);
       }
@@ -186,7 +356,7 @@ public class JsonUtils {
   public static String getJson(Object object) {
     if (null != object) {
       try {
-        return MAPPER.writeValueAsString(object);
+        return WRITER.writeValueAsString(object);
       } catch (Exception e) {
         logger.error("Error encountered while getting json for " + object.getClass(), e);
       }
@@ -206,8 +376,7 @@ public class JsonUtils {
   public static Map<String, String> getMapFromJson(String json) {
     if (json != null && !json.isEmpty()) {
       try {
-        return MAPPER.readValue(json, new TypeReference<Map<String, String>>() {
-        });
+        return STRING_MAP_READER.readValue(json);
       } catch (IOException e) {
         logger.error("Error encountered while getting map from json", e);
       }
@@ -219,8 +388,7 @@ public class JsonUtils {
   public static Map<String, Object> getNestedMapFromJson(String json) {
     if (json != null && !json.isEmpty()) {
       try {
-        return MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {
-        });
+        return NESTED_MAP_READER.readValue(json);
       } catch (IOException e) {
         logger.error("Error encountered while getting nested map from json", e);
       }
@@ -229,6 +397,10 @@ public class JsonUtils {
     return null;
   }
 
+  private static ObjectReader readerFor(Type type) {
+    return READERS.computeIfAbsent(type, t -> MAPPER.readerFor(MAPPER.getTypeFactory().constructType(t)));
+  }
+
   /*public static Map<String, List<String>> getValuesForFlattenedKeys(String json, List<String> keys) {
     Map<String, List<String>> keyToValue = new HashMap<>(keys.size());
     for (String key : keys) {
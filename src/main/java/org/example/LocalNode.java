@@ -0,0 +1,48 @@
+package org.example;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * This bridge node as the call router sees it: its id, the public stream URL Twilio reaches it on, and
+ * its live load and admission state.
+ */
+@Component
+public class LocalNode {
+  private final String id;
+  private final String streamUrl;
+  private final AdmissionControl admissionControl;
+
+  public LocalNode(@Value("${bridge.node-id:}") String id,
+                   @Value("${bridge.public-url:wss://f09e-14-98-113-242.ngrok-free.app/media-stream}") String streamUrl,
+                   AdmissionControl admissionControl) {
+    this.id = id.isEmpty() ? hostName() : id;
+    this.streamUrl = streamUrl;
+    this.admissionControl = admissionControl;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getStreamUrl() {
+    return streamUrl;
+  }
+
+  public NodeStatus status() {
+    int activeCalls = admissionControl.getAdmitted() + admissionControl.getReserved();
+    return new NodeStatus(id, streamUrl, activeCalls, admissionControl.getMaxCalls(),
+            admissionControl.isDraining(), true);
+  }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "local";
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory node registry for a single node and for tests. This node is always present with its live call
+ * count; other nodes exist only while something {@link #put}s their status.
+ */
+@Component
+@ConditionalOnProperty(name = "bridge.routing.mode", havingValue = "local", matchIfMissing = true)
+public class LocalNodeRegistry implements NodeRegistry {
+  private final LocalNode localNode;
+  private final BridgeNode self;
+  private final Map<String, BridgeNode> others = new ConcurrentHashMap<>();
+
+  public LocalNodeRegistry(LocalNode localNode) {
+    this.localNode = localNode;
+    this.self = new BridgeNode(localNode.getId());
+  }
+
+  /**
+   * Adds or updates another node.
+   */
+  public void put(NodeStatus status) {
+    others.computeIfAbsent(status.getNode(), BridgeNode::new).update(status);
+  }
+
+  public void remove(String node) {
+    others.remove(node);
+  }
+
+  /**
+   * Takes a fresh snapshot of this node, which resets the calls routed to it since the last one. That
+   * loses nothing: its active calls include the calls routed here whose stream has not connected yet.
+   */
+  @Override
+  public Collection<BridgeNode> nodes() {
+    self.update(localNode.status());
+    List<BridgeNode> nodes = new ArrayList<>(others.size() + 1);
+    nodes.add(self);
+    nodes.addAll(others.values());
+    return nodes;
+  }
+}
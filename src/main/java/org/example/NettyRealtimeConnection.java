@@ -0,0 +1,162 @@
+package org.example;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.PongWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketClientHandshaker;
+import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory;
+import io.netty.handler.codec.http.websocketx.WebSocketVersion;
+
+/**
+ * {@link OpenAiRealtimeConnection} on a Netty channel. All I/O happens on the transport's shared event
+ * loop; outgoing frames are encoded straight into pooled direct buffers, and {@link #send} may be called
+ * from any thread.
+ */
+class NettyRealtimeConnection extends OpenAiRealtimeConnection {
+  private static final int ABNORMAL_CLOSE = 1006;
+
+  private final URI uri;
+  private final WebSocketClientHandshaker handshaker;
+  private final CompletableFuture<Boolean> handshakeDone = new CompletableFuture<>();
+  private volatile Channel channel;
+  private volatile boolean open;
+  private int closeCode = ABNORMAL_CLOSE;
+  private String closeReason = "";
+  private boolean closedByServer;
+
+  NettyRealtimeConnection(URI uri, Map<String, String> headers, AssistantProfile profile, int maxFrameBytes) {
+    super(profile);
+    this.uri = uri;
+    HttpHeaders httpHeaders = new DefaultHttpHeaders();
+    headers.forEach(httpHeaders::add);
+    this.handshaker = WebSocketClientHandshakerFactory.newHandshaker(uri, WebSocketVersion.V13, null, false,
+            httpHeaders, maxFrameBytes);
+  }
+
+  URI getUri() {
+    return uri;
+  }
+
+  /**
+   * Completes with {@code true} when the WebSocket handshake succeeds and {@code false} when it fails or
+   * the channel closes first.
+   */
+  CompletableFuture<Boolean> handshakeFuture() {
+    return handshakeDone;
+  }
+
+  Handler newHandler() {
+    return new Handler();
+  }
+
+  @Override
+  public boolean isOpen() {
+    Channel current = channel;
+    return open && current != null && current.isActive();
+  }
+
+  @Override
+  public void send(String text) {
+    Channel current = channel;
+    if (open && current != null) {
+      current.writeAndFlush(new TextWebSocketFrame(ByteBufUtil.writeUtf8(current.alloc(), text)));
+    }
+  }
+
+  @Override
+  public void send(byte[] data) {
+    Channel current = channel;
+    if (open && current != null) {
+      current.writeAndFlush(new BinaryWebSocketFrame(current.alloc().buffer(data.length).writeBytes(data)));
+    }
+  }
+
+  @Override
+  public void close() {
+    Channel current = channel;
+    if (current == null) {
+      handshakeDone.complete(false);
+      return;
+    }
+    if (open) {
+      current.writeAndFlush(new CloseWebSocketFrame()).addListener(ChannelFutureListener.CLOSE);
+    } else {
+      current.close();
+    }
+  }
+
+  final class Handler extends SimpleChannelInboundHandler<Object> {
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) {
+      channel = ctx.channel();
+      handshaker.handshake(channel);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+      if (!handshaker.isHandshakeComplete()) {
+        if (msg instanceof FullHttpResponse) {
+          try {
+            handshaker.finishHandshake(ctx.channel(), (FullHttpResponse) msg);
+          } catch (RuntimeException e) {
+            onFailure(e);
+            ctx.close();
+            return;
+          }
+          open = true;
+          onOpened();
+          handshakeDone.complete(true);
+        }
+        return;
+      }
+
+      if (msg instanceof TextWebSocketFrame) {
+        onText(((TextWebSocketFrame) msg).text());
+      } else if (msg instanceof BinaryWebSocketFrame) {
+        ByteBuf content = ((BinaryWebSocketFrame) msg).content();
+        // The frame is released after this call, but listeners may keep the bytes for a later write.
+        ByteBuffer copy = ByteBuffer.allocate(content.readableBytes());
+        content.getBytes(content.readerIndex(), copy);
+        copy.flip();
+        onBinary(copy);
+      } else if (msg instanceof PingWebSocketFrame) {
+        ctx.writeAndFlush(new PongWebSocketFrame(((PingWebSocketFrame) msg).content().retain()));
+      } else if (msg instanceof CloseWebSocketFrame) {
+        CloseWebSocketFrame close = (CloseWebSocketFrame) msg;
+        closeCode = close.statusCode();
+        closeReason = close.reasonText();
+        closedByServer = true;
+        ctx.close();
+      }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+      open = false;
+      handshakeDone.complete(false);
+      onClosed(closeCode, closeReason, closedByServer);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      onFailure(cause);
+      ctx.close();
+    }
+  }
+}
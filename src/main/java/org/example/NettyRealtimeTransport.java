@@ -0,0 +1,117 @@
+package org.example;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries every upstream socket on one shared Netty event loop of {@code openai.netty.event-loop-threads}
+ * threads, so upstream connections no longer cost threads of their own. Buffers come from the pooled
+ * allocator, which hands out direct buffers, so socket reads and writes skip the heap copy.
+ */
+@Component
+@ConditionalOnProperty(name = "openai.transport", havingValue = "netty", matchIfMissing = true)
+public class NettyRealtimeTransport implements RealtimeTransport {
+  private static final int MAX_HANDSHAKE_BYTES = 64 * 1024;
+  private static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+  private final EventLoopGroup eventLoop;
+  private final SslContext sslContext;
+
+  public NettyRealtimeTransport(@Value("${openai.netty.event-loop-threads:2}") int eventLoopThreads) throws SSLException {
+    this.eventLoop = new NioEventLoopGroup(eventLoopThreads, new DefaultThreadFactory("openai-netty", true));
+    this.sslContext = SslContextBuilder.forClient().build();
+  }
+
+  @PreDestroy
+  public void stop() {
+    eventLoop.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public OpenAiRealtimeConnection newConnection(URI uri, Map<String, String> headers, AssistantProfile profile) {
+    return new NettyRealtimeConnection(uri, headers, profile, MAX_FRAME_BYTES);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> connect(OpenAiRealtimeConnection connection, long timeoutMs) {
+    NettyRealtimeConnection socket = (NettyRealtimeConnection) connection;
+    CompletableFuture<Boolean> handshake = socket.handshakeFuture();
+    URI uri = socket.getUri();
+    boolean secure = "wss".equalsIgnoreCase(uri.getScheme());
+    String host = uri.getHost();
+    int port = uri.getPort() != -1 ? uri.getPort() : secure ? 443 : 80;
+
+    Bootstrap bootstrap = new Bootstrap()
+            .group(eventLoop)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeoutMs)
+            .handler(new ChannelInitializer<SocketChannel>() {
+              @Override
+              protected void initChannel(SocketChannel channel) {
+                ChannelPipeline pipeline = channel.pipeline();
+                if (secure) {
+                  pipeline.addLast(newSslHandler(channel, host, port));
+                }
+                pipeline.addLast(new HttpClientCodec(),
+                        new HttpObjectAggregator(MAX_HANDSHAKE_BYTES),
+                        new WebSocketFrameAggregator(MAX_FRAME_BYTES),
+                        socket.newHandler());
+              }
+            });
+    bootstrap.connect(host, port).addListener((ChannelFutureListener) (ChannelFuture future) -> {
+      if (!future.isSuccess()) {
+        socket.onFailure(future.cause());
+        handshake.complete(false);
+      }
+    });
+    eventLoop.schedule(() -> {
+      if (handshake.complete(false)) {
+        socket.close();
+      }
+    }, timeoutMs, TimeUnit.MILLISECONDS);
+    return handshake;
+  }
+
+  /**
+   * A TLS handler that also checks the server certificate was issued for {@code host}, which the
+   * {@link SslContext} alone does not do.
+   */
+  private SslHandler newSslHandler(SocketChannel channel, String host, int port) {
+    SslHandler handler = sslContext.newHandler(channel.alloc(), host, port);
+    SSLEngine engine = handler.engine();
+    SSLParameters parameters = engine.getSSLParameters();
+    parameters.setEndpointIdentificationAlgorithm("HTTPS");
+    engine.setSSLParameters(parameters);
+    return handler;
+  }
+}
@@ -0,0 +1,17 @@
+package org.example;
+
+import java.util.Collection;
+
+/**
+ * Where the call router learns about bridge nodes, chosen with {@code bridge.routing.mode}: {@code local}
+ * keeps them in memory, starting with this node alone, {@code polled} reads each configured node's
+ * {@code /node-status}.
+ */
+public interface NodeRegistry {
+
+  /**
+   * Every known node, with the freshest status available. Nodes that never reported have a {@code null}
+   * status.
+   */
+  Collection<BridgeNode> nodes();
+}
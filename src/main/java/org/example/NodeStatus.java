@@ -0,0 +1,74 @@
+package org.example;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * What a bridge node reports on {@code /node-status}: where Twilio should stream calls meant for it, how
+ * many calls it is carrying, its call limit and whether it takes new ones.
+ */
+public final class NodeStatus {
+  @JsonProperty("node")
+  private String node;
+  @JsonProperty("streamUrl")
+  private String streamUrl;
+  @JsonProperty("activeCalls")
+  private int activeCalls;
+  @JsonProperty("maxCalls")
+  private int maxCalls;
+  @JsonProperty("draining")
+  private boolean draining;
+  @JsonProperty("healthy")
+  private boolean healthy;
+
+  private NodeStatus() {
+  }
+
+  public NodeStatus(String node, String streamUrl, int activeCalls, int maxCalls, boolean draining, boolean healthy) {
+    this.node = node;
+    this.streamUrl = streamUrl;
+    this.activeCalls = activeCalls;
+    this.maxCalls = maxCalls;
+    this.draining = draining;
+    this.healthy = healthy;
+  }
+
+  public String getNode() {
+    return node;
+  }
+
+  /**
+   * The public {@code wss://.../media-stream} URL of the node.
+   */
+  public String getStreamUrl() {
+    return streamUrl;
+  }
+
+  /**
+   * Calls the node carries plus calls routed to it whose media stream has not connected yet.
+   */
+  public int getActiveCalls() {
+    return activeCalls;
+  }
+
+  /**
+   * The node's {@code bridge.admission.max-calls}, 0 when it has no cap.
+   */
+  public int getMaxCalls() {
+    return maxCalls;
+  }
+
+  public boolean isDraining() {
+    return draining;
+  }
+
+  /**
+   * Whether the node would admit {@code load} more calls than it reported.
+   */
+  boolean admits(int load) {
+    return healthy && !draining && (maxCalls <= 0 || load < maxCalls);
+  }
+
+  public boolean isHealthy() {
+    return healthy;
+  }
+}
@@ -0,0 +1,21 @@
+package org.example;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Lightweight status of this node for the call routers of its peers; served without touching any call.
+ */
+@RestController
+public class NodeStatusResource {
+  private final LocalNode localNode;
+
+  public NodeStatusResource(LocalNode localNode) {
+    this.localNode = localNode;
+  }
+
+  @GetMapping("/node-status")
+  public NodeStatus nodeStatus() {
+    return localNode.status();
+  }
+}
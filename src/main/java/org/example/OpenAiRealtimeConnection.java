@@ -0,0 +1,105 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Upstream socket to the OpenAI realtime API, independent of the {@link RealtimeTransport} that carries it.
+ * It sends its profile's {@code session.update} as soon as it opens, so it can be warmed up before any call
+ * exists and handed to a {@link RealtimeListener} later. Transports report socket events through the
+ * {@code on...} methods and implement sending and closing.
+ */
+@Slf4j
+public abstract class OpenAiRealtimeConnection {
+  private volatile AssistantProfile profile;
+  private final long createdAtNanos = System.nanoTime();
+  private volatile long openedAtNanos;
+  private volatile long sessionReadyAtNanos;
+  private volatile RealtimeListener listener;
+
+  protected OpenAiRealtimeConnection(AssistantProfile profile) {
+    this.profile = profile;
+  }
+
+  public abstract boolean isOpen();
+
+  public abstract void send(String text);
+
+  public abstract void send(byte[] data);
+
+  public abstract void close();
+
+  public AssistantProfile getProfile() {
+    return profile;
+  }
+
+  /**
+   * Switches the session to another assistant profile, sending its {@code session.update} right away if
+   * the socket is already open.
+   */
+  public void applyProfile(AssistantProfile newProfile) {
+    if (newProfile == profile) {
+      return;
+    }
+    profile = newProfile;
+    if (isOpen()) {
+      send(newProfile.getSessionUpdate());
+    }
+  }
+
+  public void attach(RealtimeListener listener) {
+    this.listener = listener;
+  }
+
+  public boolean isSessionReady() {
+    return sessionReadyAtNanos != 0;
+  }
+
+  public long ageMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdAtNanos);
+  }
+
+  /**
+   * Time from creation until the server acknowledged the {@code session.update}, i.e. the setup a
+   * caller no longer waits for when this connection comes from the pool. Zero while still warming.
+   */
+  public long setupMillis() {
+    long readyAt = sessionReadyAtNanos;
+    return readyAt == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(readyAt - createdAtNanos);
+  }
+
+  protected void onOpened() {
+    openedAtNanos = System.nanoTime();
+    send(profile.getSessionUpdate());
+  }
+
+  protected void onText(String message) {
+    if (sessionReadyAtNanos == 0 && message.contains("\"session.updated\"")) {
+      sessionReadyAtNanos = System.nanoTime();
+    }
+    RealtimeListener current = listener;
+    if (current != null) {
+      current.onRealtimeMessage(message);
+    }
+  }
+
+  protected void onBinary(ByteBuffer bytes) {
+    RealtimeListener current = listener;
+    if (current != null) {
+      current.onRealtimeBinary(bytes);
+    }
+  }
+
+  protected void onClosed(int code, String reason, boolean remote) {
+    RealtimeListener current = listener;
+    if (current != null) {
+      current.onRealtimeClosed(code, reason, remote);
+    }
+  }
+
+  protected void onFailure(Throwable error) {
+    log.info("OpenAI WebSocket error: " + error.getMessage());
+  }
+}
@@ -0,0 +1,73 @@
+package org.example;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens {@link OpenAiRealtimeConnection}s to the configured realtime deployment over the configured
+ * {@link RealtimeTransport}.
+ */
+@Component
+@Slf4j
+public class OpenAiRealtimeConnector {
+  private final URI uri;
+  private final String apiKey;
+  private final long connectTimeoutMs;
+  private final AssistantProfiles assistantProfiles;
+  private final RealtimeTransport transport;
+  private final Timer connectTime;
+
+  public OpenAiRealtimeConnector(
+          @Value("${openai.realtime.url:wss://freshcaller-swedencentral-ai-stage01.openai.azure.com/openai/realtime?api-version=2024-10-01-preview&deployment=gpt-4o-realtime-preview}") String url,
+          @Value("${openai.realtime.api-key}") String apiKey,
+          @Value("${openai.realtime.connect-timeout-ms:10000}") long connectTimeoutMs,
+          AssistantProfiles assistantProfiles,
+          RealtimeTransport transport,
+          MeterRegistry meterRegistry) {
+    this.uri = URI.create(url);
+    this.apiKey = apiKey;
+    this.connectTimeoutMs = connectTimeoutMs;
+    this.assistantProfiles = assistantProfiles;
+    this.transport = transport;
+    this.connectTime = Timer.builder("openai.connect.time")
+            .description("WebSocket handshake time to the realtime API")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(10))
+            .maximumExpectedValue(Duration.ofMillis(connectTimeoutMs))
+            .register(meterRegistry);
+    log.info("Realtime transport: " + transport.getClass().getSimpleName());
+  }
+
+  public OpenAiRealtimeConnection newConnection() {
+    return newConnection(assistantProfiles.getDefault());
+  }
+
+  public OpenAiRealtimeConnection newConnection(AssistantProfile profile) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("api-key", apiKey);
+    return transport.newConnection(uri, headers, profile);
+  }
+
+  /**
+   * Completes with {@code true} once the handshake is done, {@code false} if it failed or timed out.
+   */
+  public CompletableFuture<Boolean> connect(OpenAiRealtimeConnection connection) {
+    long start = System.nanoTime();
+    return transport.connect(connection, connectTimeoutMs).thenApply(connected -> {
+      if (connected) {
+        connectTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+      return connected;
+    });
+  }
+}
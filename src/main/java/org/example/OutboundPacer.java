@@ -0,0 +1,119 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * Releases one call's outbound audio to its {@link TwilioOutboundQueue} at the rate Twilio plays it, 8000
+ * μ-law bytes a second, keeping only {@code lead} of audio ahead of the estimated playout position. The
+ * realtime API delivers a response many times faster than real time; without pacing the whole burst sits in
+ * Twilio's buffer, and a barge-in has to wait for Twilio to clear it. Held frames are dropped here instead,
+ * at no cost. Release runs on the shared timer wheel, never on a thread of its own.
+ */
+final class OutboundPacer {
+  private static final long NANOS_PER_MULAW_BYTE = TimeUnit.SECONDS.toNanos(1) / 8000;
+
+  private final TwilioOutboundQueue outboundQueue;
+  private final Timer timer;
+  private final long leadNanos;
+  private final TwilioOutboundStats stats;
+  private final ArrayDeque<Frame> held = new ArrayDeque<>();
+  // When the audio released so far will have finished playing, assuming Twilio plays it back to back
+  private long playoutEndNanos;
+  private Timeout scheduled;
+  private boolean closed;
+
+  OutboundPacer(TwilioOutboundQueue outboundQueue, Timer timer, long leadMs, TwilioOutboundStats stats) {
+    this.outboundQueue = outboundQueue;
+    this.timer = timer;
+    this.leadNanos = TimeUnit.MILLISECONDS.toNanos(leadMs);
+    this.stats = stats;
+  }
+
+  /**
+   * Queues an audio frame of {@code bytes} μ-law bytes and the mark {@code markId} that follows it, if any.
+   * What is due goes out right away on the calling thread; the rest waits for the timer.
+   */
+  synchronized void offer(WebSocketMessage<?> audio, WebSocketMessage<?> mark, long markId, int bytes) {
+    if (closed) {
+      return;
+    }
+    held.add(new Frame(audio, mark, markId, bytes));
+    stats.held(1);
+    release(System.nanoTime());
+  }
+
+  /**
+   * Barge-in: drops the audio not yet released and restarts the playout clock. Returns the frames dropped.
+   */
+  synchronized int purge() {
+    int purged = held.size();
+    held.clear();
+    playoutEndNanos = 0;
+    if (purged > 0) {
+      stats.held(-purged);
+      stats.purgedAudio(purged);
+    }
+    return purged;
+  }
+
+  synchronized void close() {
+    closed = true;
+    int dropped = held.size();
+    held.clear();
+    stats.held(-dropped);
+    if (scheduled != null) {
+      scheduled.cancel();
+      scheduled = null;
+    }
+  }
+
+  private synchronized void onTimer() {
+    scheduled = null;
+    if (!closed) {
+      release(System.nanoTime());
+    }
+  }
+
+  private void release(long now) {
+    int released = 0;
+    while (!held.isEmpty()) {
+      long playoutStart = Math.max(playoutEndNanos, now);
+      if (playoutStart - now > leadNanos) {
+        break;
+      }
+      Frame frame = held.poll();
+      released++;
+      playoutEndNanos = playoutStart + frame.bytes * NANOS_PER_MULAW_BYTE;
+      outboundQueue.offerAudio(frame.audio);
+      if (frame.mark != null) {
+        outboundQueue.offerMark(frame.mark, frame.markId);
+      }
+    }
+    if (released > 0) {
+      stats.held(-released);
+    }
+    if (!held.isEmpty() && scheduled == null) {
+      long delay = Math.max(playoutEndNanos - now - leadNanos, 0);
+      scheduled = timer.newTimeout(timeout -> onTimer(), delay, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static final class Frame {
+    private final WebSocketMessage<?> audio;
+    private final WebSocketMessage<?> mark;
+    private final long markId;
+    private final int bytes;
+
+    private Frame(WebSocketMessage<?> audio, WebSocketMessage<?> mark, long markId, int bytes) {
+      this.audio = audio;
+      this.mark = mark;
+      this.markId = markId;
+      this.bytes = bytes;
+    }
+  }
+}
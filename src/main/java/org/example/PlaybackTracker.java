@@ -0,0 +1,99 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Tracks how much of the assistant's current audio item the caller has actually heard. Every audio
+ * frame sent to Twilio is followed by a {@code mark}; Twilio echoes the mark once everything before it
+ * has played, which moves the played position forward. A frame dropped before it reached Twilio takes its
+ * mark with it and no longer counts as sent. Deltas arrive on the upstream thread and marks on the Twilio
+ * thread, so all methods are synchronized.
+ */
+final class PlaybackTracker {
+  private static final int MULAW_BYTES_PER_MS = 8;
+
+  // {mark id, bytes of the frame before it}, oldest first
+  private final ArrayDeque<long[]> pendingMarks = new ArrayDeque<>();
+  private String itemId;
+  private long sentBytes;
+  private long playedBytes;
+  private long nextMarkId;
+
+  /**
+   * Records audio of {@code itemId} handed to Twilio and returns the id of the mark to send after it.
+   */
+  synchronized long audioSent(String itemId, int bytes) {
+    if (itemId != null && !itemId.equals(this.itemId)) {
+      this.itemId = itemId;
+      sentBytes = 0;
+      playedBytes = 0;
+      pendingMarks.clear();
+    }
+    sentBytes += bytes;
+    long markId = ++nextMarkId;
+    pendingMarks.addLast(new long[]{markId, bytes});
+    return markId;
+  }
+
+  /**
+   * Forgets the frame before mark {@code markId}, which was dropped instead of sent to Twilio.
+   */
+  synchronized void markDropped(long markId) {
+    for (Iterator<long[]> it = pendingMarks.iterator(); it.hasNext(); ) {
+      long[] mark = it.next();
+      if (mark[0] == markId) {
+        it.remove();
+        sentBytes -= mark[1];
+        return;
+      }
+    }
+  }
+
+  /**
+   * Handles a mark echoed by Twilio. Marks left over from an item that was already interrupted are
+   * ignored.
+   */
+  synchronized void markPlayed(String name) {
+    long markId;
+    try {
+      markId = Long.parseLong(name);
+    } catch (NumberFormatException e) {
+      return;
+    }
+    long[] mark;
+    while ((mark = pendingMarks.peekFirst()) != null && mark[0] <= markId) {
+      pendingMarks.pollFirst();
+      playedBytes += mark[1];
+    }
+  }
+
+  /**
+   * Ends playback of the current item and returns what the caller heard of it, or {@code null} when
+   * everything sent had already played.
+   */
+  synchronized Interruption interrupt() {
+    Interruption interruption = null;
+    if (itemId != null && playedBytes < sentBytes) {
+      interruption = new Interruption(itemId, playedBytes / MULAW_BYTES_PER_MS,
+              (sentBytes - playedBytes) / MULAW_BYTES_PER_MS);
+    }
+    itemId = null;
+    sentBytes = 0;
+    playedBytes = 0;
+    pendingMarks.clear();
+    return interruption;
+  }
+
+  static final class Interruption {
+    final String itemId;
+    final long playedMs;
+    final long unplayedMs;
+
+    private Interruption(String itemId, long playedMs, long unplayedMs) {
+      this.itemId = itemId;
+      this.playedMs = playedMs;
+      this.unplayedMs = unplayedMs;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Polls {@code /node-status} of every node in {@code bridge.routing.nodes} (base URLs, this node included
+ * if it takes calls) every {@code bridge.routing.poll-interval-ms}. A node that does not answer within
+ * {@code bridge.routing.timeout-ms} is marked unhealthy until it does again.
+ */
+@Component
+@ConditionalOnProperty(name = "bridge.routing.mode", havingValue = "polled")
+@Slf4j
+public class PolledNodeRegistry implements NodeRegistry {
+  private final List<BridgeNode> nodes = new ArrayList<>();
+  private final long pollIntervalMs;
+  private final RestTemplate restTemplate;
+  private ScheduledExecutorService poller;
+
+  public PolledNodeRegistry(@Value("${bridge.routing.nodes:}") String nodes,
+                            @Value("${bridge.routing.poll-interval-ms:1000}") long pollIntervalMs,
+                            @Value("${bridge.routing.timeout-ms:500}") int timeoutMs) {
+    for (String node : nodes.split(",")) {
+      String baseUrl = node.trim();
+      if (!baseUrl.isEmpty()) {
+        this.nodes.add(new BridgeNode(baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl));
+      }
+    }
+    this.pollIntervalMs = pollIntervalMs;
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(timeoutMs);
+    requestFactory.setReadTimeout(timeoutMs);
+    this.restTemplate = new RestTemplate(requestFactory);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (nodes.isEmpty()) {
+      log.info("bridge.routing.mode=polled but bridge.routing.nodes is empty; calls stay on this node");
+      return;
+    }
+    poller = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "node-status-poller");
+      thread.setDaemon(true);
+      return thread;
+    });
+    poller.scheduleWithFixedDelay(this::pollAll, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (poller != null) {
+      poller.shutdownNow();
+    }
+  }
+
+  @Override
+  public Collection<BridgeNode> nodes() {
+    return nodes;
+  }
+
+  private void pollAll() {
+    for (BridgeNode node : nodes) {
+      try {
+        NodeStatus status = restTemplate.getForObject(node.getKey() + "/node-status", NodeStatus.class);
+        if (status != null) {
+          node.update(status);
+        } else {
+          node.markUnhealthy();
+        }
+      } catch (RuntimeException e) {
+        NodeStatus previous = node.getStatus();
+        if (previous != null && previous.isHealthy()) {
+          log.info("Bridge node " + node.getKey() + " is unreachable: " + e.getMessage());
+        }
+        node.markUnhealthy();
+      }
+    }
+  }
+}
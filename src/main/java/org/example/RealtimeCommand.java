@@ -0,0 +1,62 @@
+package org.example;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Client events the bridge sends to the realtime API, serialized through {@link JsonUtils#getJson} so
+ * tool output and ids are always escaped correctly.
+ */
+final class RealtimeCommand {
+  static final String RESPONSE_CREATE = "{\"type\":\"response.create\"}";
+  static final String RESPONSE_CANCEL = "{\"type\":\"response.cancel\"}";
+
+  @JsonProperty("type")
+  private final String type;
+  @JsonProperty("item")
+  private Item item;
+  @JsonProperty("item_id")
+  private String itemId;
+  @JsonProperty("content_index")
+  private Integer contentIndex;
+  @JsonProperty("audio_end_ms")
+  private Long audioEndMs;
+
+  private RealtimeCommand(String type) {
+    this.type = type;
+  }
+
+  /**
+   * {@code conversation.item.create} carrying a tool result for {@code callId}.
+   */
+  static String functionCallOutput(String callId, String output) {
+    RealtimeCommand command = new RealtimeCommand("conversation.item.create");
+    command.item = new Item("function_call_output", callId, output);
+    return JsonUtils.getJson(command);
+  }
+
+  /**
+   * {@code conversation.item.truncate} cutting an assistant item's audio at what the caller heard.
+   */
+  static String truncate(String itemId, long audioEndMs) {
+    RealtimeCommand command = new RealtimeCommand("conversation.item.truncate");
+    command.itemId = itemId;
+    command.contentIndex = 0;
+    command.audioEndMs = audioEndMs;
+    return JsonUtils.getJson(command);
+  }
+
+  static final class Item {
+    @JsonProperty("type")
+    private final String type;
+    @JsonProperty("call_id")
+    private final String callId;
+    @JsonProperty("output")
+    private final String output;
+
+    private Item(String type, String callId, String output) {
+      this.type = type;
+      this.callId = callId;
+      this.output = output;
+    }
+  }
+}
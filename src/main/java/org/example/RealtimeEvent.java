@@ -0,0 +1,112 @@
+package org.example;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The fields of a server event from the realtime API that the bridge acts on, bound in one pass by
+ * {@link JsonUtils#parseJsonResponse(String, Class)}. Everything else, such as the full {@code response}
+ * object of {@code response.done}, is skipped by the parser. The {@code arguments} of a function call stay
+ * a string until {@link #getToolArguments()} is called, so they are only decoded when a tool runs.
+ */
+final class RealtimeEvent {
+  static final String SPEECH_STARTED = "input_audio_buffer.speech_started";
+  static final String SPEECH_STOPPED = "input_audio_buffer.speech_stopped";
+  static final String RESPONSE_CREATED = "response.created";
+  static final String RESPONSE_DONE = "response.done";
+  static final String AUDIO_DELTA = "response.audio.delta";
+  static final String FUNCTION_CALL_ARGUMENTS_DONE = "response.function_call_arguments.done";
+  static final String INPUT_TRANSCRIPTION_COMPLETED = "conversation.item.input_audio_transcription.completed";
+  static final String AUDIO_TRANSCRIPT_DONE = "response.audio_transcript.done";
+  static final String ERROR = "error";
+
+  @JsonProperty("type")
+  private String type;
+  @JsonProperty("item_id")
+  private String itemId;
+  @JsonProperty("delta")
+  private String delta;
+  @JsonProperty("call_id")
+  private String callId;
+  @JsonProperty("name")
+  private String name;
+  @JsonProperty("arguments")
+  private String arguments;
+  @JsonProperty("transcript")
+  private String transcript;
+  @JsonProperty("error")
+  private JsonNode error;
+  @JsonIgnore
+  private ToolArguments toolArguments;
+
+  String getType() {
+    return type;
+  }
+
+  String getItemId() {
+    return itemId;
+  }
+
+  /**
+   * Base64 audio of {@code response.audio.delta}; text deltas of other events also land here.
+   */
+  String getDelta() {
+    return delta;
+  }
+
+  String getCallId() {
+    return callId;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /**
+   * The raw JSON-encoded arguments of {@code response.function_call_arguments.done}.
+   */
+  String getArguments() {
+    return arguments;
+  }
+
+  /**
+   * Text of {@code conversation.item.input_audio_transcription.completed} and
+   * {@code response.audio_transcript.done}.
+   */
+  String getTranscript() {
+    return transcript;
+  }
+
+  JsonNode getError() {
+    return error;
+  }
+
+  /**
+   * Decodes {@link #getArguments()} on first use. Returns {@code null} when there are none or they are
+   * not valid JSON.
+   */
+  ToolArguments getToolArguments() {
+    if (toolArguments == null && arguments != null) {
+      toolArguments = JsonUtils.parseJsonResponse(arguments, ToolArguments.class);
+    }
+    return toolArguments;
+  }
+
+  /**
+   * Arguments of the {@code get_user_query} tool.
+   */
+  static final class ToolArguments {
+    @JsonProperty("inference")
+    private String inference;
+
+    String getInference() {
+      return inference;
+    }
+
+    @Override
+    public String toString() {
+      return "{inference=" + inference + "}";
+    }
+  }
+}
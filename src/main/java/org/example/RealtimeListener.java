@@ -0,0 +1,15 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the events of an {@link OpenAiRealtimeConnection} once a call has claimed it.
+ */
+public interface RealtimeListener {
+
+  void onRealtimeMessage(String message);
+
+  void onRealtimeBinary(ByteBuffer bytes);
+
+  void onRealtimeClosed(int code, String reason, boolean remote);
+}
@@ -0,0 +1,188 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a few OpenAI realtime sessions connected and configured ahead of time so a new call can start
+ * streaming audio without waiting for the TLS handshake and {@code session.update}. Claimed connections
+ * belong to their call for good; the pool refills itself in the background and retires idle connections
+ * once they reach {@code openai.pool.max-age-ms}.
+ */
+@Component
+@Slf4j
+public class RealtimeSessionPool {
+  private final OpenAiRealtimeConnector connector;
+  private final int size;
+  private final long maxAgeMs;
+  private final long refillIntervalMs;
+  private final ConcurrentLinkedDeque<OpenAiRealtimeConnection> idle = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger warming = new AtomicInteger();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong retired = new AtomicLong();
+  private final AtomicLong savedSetupMillis = new AtomicLong();
+  private final FirstAudioStats pooledFirstAudio = new FirstAudioStats();
+  private final FirstAudioStats coldFirstAudio = new FirstAudioStats();
+  private ScheduledExecutorService scheduler;
+
+  public RealtimeSessionPool(OpenAiRealtimeConnector connector,
+                             @Value("${openai.pool.size:0}") int size,
+                             @Value("${openai.pool.max-age-ms:600000}") long maxAgeMs,
+                             @Value("${openai.pool.refill-interval-ms:5000}") long refillIntervalMs) {
+    this.connector = connector;
+    this.size = size;
+    this.maxAgeMs = maxAgeMs;
+    this.refillIntervalMs = refillIntervalMs;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (size <= 0) {
+      log.info("Realtime session pool disabled");
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "realtime-session-pool");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::refill, 0, refillIntervalMs, TimeUnit.MILLISECONDS);
+    log.info("Realtime session pool started with size " + size + " and max age " + maxAgeMs + " ms");
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    OpenAiRealtimeConnection connection;
+    while ((connection = idle.poll()) != null) {
+      connection.close();
+    }
+  }
+
+  /**
+   * Returns an open connection whose {@code session.update} the server has acknowledged, or {@code null}
+   * when none is ready, in which case the caller connects on its own. Connections still waiting for
+   * {@code session.updated} stay in the pool for a later call.
+   */
+  public OpenAiRealtimeConnection claim() {
+    for (OpenAiRealtimeConnection connection : idle) {
+      if (!connection.isOpen() || connection.ageMillis() >= maxAgeMs) {
+        if (idle.removeFirstOccurrence(connection)) {
+          retire(connection);
+        }
+      } else if (connection.isSessionReady() && idle.removeFirstOccurrence(connection)) {
+        hits.incrementAndGet();
+        savedSetupMillis.addAndGet(connection.setupMillis());
+        scheduleRefill();
+        return connection;
+      }
+    }
+    if (size > 0) {
+      misses.incrementAndGet();
+      scheduleRefill();
+    }
+    return null;
+  }
+
+  /**
+   * Records the time from claiming an upstream session to the first audio delta of the call.
+   */
+  public void recordFirstAudio(boolean pooled, long millis) {
+    (pooled ? pooledFirstAudio : coldFirstAudio).record(millis);
+    log.info("First audio after " + millis + " ms (" + (pooled ? "pooled" : "cold") + ")");
+  }
+
+  public int idleCount() {
+    return idle.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getRetired() {
+    return retired.get();
+  }
+
+  /**
+   * Total connect plus {@code session.update} time that callers skipped by getting a pooled session.
+   */
+  public long getSavedSetupMillis() {
+    return savedSetupMillis.get();
+  }
+
+  public long getFirstAudioCount(boolean pooled) {
+    return (pooled ? pooledFirstAudio : coldFirstAudio).count.get();
+  }
+
+  public long getFirstAudioTotalMillis(boolean pooled) {
+    return (pooled ? pooledFirstAudio : coldFirstAudio).totalMillis.get();
+  }
+
+  private void scheduleRefill() {
+    if (scheduler != null) {
+      scheduler.execute(this::refill);
+    }
+  }
+
+  private void refill() {
+    try {
+      for (OpenAiRealtimeConnection connection : idle) {
+        // A session the server has not acknowledged within a refill interval is not going to be claimed
+        boolean stuck = !connection.isSessionReady() && connection.ageMillis() >= refillIntervalMs;
+        // Only the thread that takes a connection out of the deque may close it; a call may have claimed it
+        if ((!connection.isOpen() || connection.ageMillis() >= maxAgeMs || stuck)
+                && idle.removeFirstOccurrence(connection)) {
+          retire(connection);
+        }
+      }
+      while (idle.size() + warming.get() < size) {
+        warming.incrementAndGet();
+        OpenAiRealtimeConnection connection = connector.newConnection();
+        connector.connect(connection).whenComplete((connected, error) -> {
+          warming.decrementAndGet();
+          if (Boolean.TRUE.equals(connected) && connection.isOpen()) {
+            idle.offer(connection);
+          } else {
+            log.info("Failed to warm realtime session" + (error != null ? ": " + error.getMessage() : ""));
+            connection.close();
+          }
+        });
+      }
+    } catch (Exception e) {
+      log.info("Error refilling realtime session pool: " + e.getMessage());
+    }
+  }
+
+  private void retire(OpenAiRealtimeConnection connection) {
+    retired.incrementAndGet();
+    connection.close();
+  }
+
+  private static final class FirstAudioStats {
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+
+    void record(long millis) {
+      count.incrementAndGet();
+      totalMillis.addAndGet(millis);
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package org.example;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * WebSocket implementation that carries {@link OpenAiRealtimeConnection}s, chosen with
+ * {@code openai.transport}: {@code netty} multiplexes every upstream socket over one small shared event
+ * loop, {@code java-websocket} gives each socket its own read and write threads.
+ */
+public interface RealtimeTransport {
+
+  OpenAiRealtimeConnection newConnection(URI uri, Map<String, String> headers, AssistantProfile profile);
+
+  /**
+   * Starts the handshake. Completes with {@code true} once it is done, {@code false} if it failed or
+   * did not finish within {@code timeoutMs}.
+   */
+  CompletableFuture<Boolean> connect(OpenAiRealtimeConnection connection, long timeoutMs);
+}
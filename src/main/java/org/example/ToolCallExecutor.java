@@ -0,0 +1,160 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs tool calls on a bounded pool instead of the upstream socket's read thread. Each call gets a
+ * timeout; the returned future fails with {@link TimeoutException} when it expires or with
+ * {@link RejectedExecutionException} when the queue is full, and cancelling it interrupts the running tool.
+ * Interrupting a thread does not stop a blocking socket read, so a tool doing I/O registers how to abort
+ * it with {@link #onAbort(Runnable)}; that runs as well when the call times out or is cancelled.
+ */
+@Component
+@Slf4j
+public class ToolCallExecutor {
+  private static final ThreadLocal<AtomicReference<Runnable>> CURRENT_ABORT = new ThreadLocal<>();
+  // Left in a call's abort holder once it timed out or was cancelled, so a later registration runs at once
+  private static final Runnable ABORTED = () -> { };
+
+  private final ThreadPoolExecutor executor;
+  private final ScheduledThreadPoolExecutor timer;
+  private final long timeoutMs;
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong timedOut = new AtomicLong();
+  private final Timer queueTime;
+  private final Timer runTime;
+
+  public ToolCallExecutor(@Value("${tools.executor.threads:16}") int threads,
+                          @Value("${tools.executor.queue-capacity:256}") int queueCapacity,
+                          @Value("${tools.timeout-ms:15000}") long timeoutMs,
+                          BridgeThreads bridgeThreads, MeterRegistry meterRegistry) {
+    this.timeoutMs = timeoutMs;
+    this.queueTime = Timer.builder("tools.executor.queue.time")
+            .description("Time tool calls waited for an executor thread")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofMillis(timeoutMs))
+            .register(meterRegistry);
+    this.runTime = Timer.builder("tools.executor.run.time")
+            .description("Time tool calls ran on an executor thread")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(5))
+            .maximumExpectedValue(Duration.ofMillis(timeoutMs))
+            .register(meterRegistry);
+    // With virtual threads the pool still bounds concurrent calls to the backend, but idle workers cost
+    // next to nothing, so tools.executor.threads can be raised to match the HTTP connection pool.
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), bridgeThreads.factory("tool-call"));
+    this.executor.allowCoreThreadTimeOut(true);
+    this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+      Thread thread = new Thread(r, "tool-call-timeout");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.timer.setRemoveOnCancelPolicy(true);
+  }
+
+  @PreDestroy
+  public void stop() {
+    executor.shutdownNow();
+    timer.shutdownNow();
+  }
+
+  /**
+   * Registers how to abort the blocking I/O of the tool call running on this thread, replacing what was
+   * registered before. If the call has already timed out or been cancelled, runs {@code abort} right away.
+   * Does nothing outside a tool call.
+   */
+  static void onAbort(Runnable abort) {
+    AtomicReference<Runnable> current = CURRENT_ABORT.get();
+    if (current != null && current.getAndUpdate(registered -> registered == ABORTED ? ABORTED : abort) == ABORTED) {
+      abort.run();
+    }
+  }
+
+  public <T> CompletableFuture<T> execute(Supplier<T> tool) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    AtomicReference<Runnable> abort = new AtomicReference<>();
+    long enqueuedAt = System.nanoTime();
+    FutureTask<Void> task = new FutureTask<>(() -> {
+      long startedAt = System.nanoTime();
+      queueTime.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+      CURRENT_ABORT.set(abort);
+      try {
+        result.complete(tool.get());
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      } finally {
+        CURRENT_ABORT.remove();
+        abort.set(null);
+        runTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+      }
+    }, null);
+
+    submitted.incrementAndGet();
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      rejected.incrementAndGet();
+      result.completeExceptionally(e);
+      return result;
+    }
+
+    ScheduledFuture<?> timeout = timer.schedule(() -> {
+      if (result.completeExceptionally(new TimeoutException("Tool call timed out after " + timeoutMs + " ms"))) {
+        timedOut.incrementAndGet();
+      }
+    }, timeoutMs, TimeUnit.MILLISECONDS);
+    result.whenComplete((value, error) -> {
+      timeout.cancel(false);
+      if (error != null) {
+        task.cancel(true);
+        Runnable action = abort.getAndSet(ABORTED);
+        if (action != null && action != ABORTED) {
+          action.run();
+        }
+      }
+    });
+    return result;
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public long getSubmitted() {
+    return submitted.get();
+  }
+
+  public long getRejected() {
+    return rejected.get();
+  }
+
+  public long getTimedOut() {
+    return timedOut.get();
+  }
+}
@@ -0,0 +1,144 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded LRU cache of {@code get_user_query} answers keyed by the normalized {@code inference} text, so
+ * common questions (shipping charges, offers, return policy) are answered without a backend round trip.
+ * Entries expire after {@code tools.cache.ttl-ms}. Queries that look caller-specific, such as anything
+ * mentioning orders or carrying an id-like number, are never cached.
+ */
+@Component
+public class ToolResultCache {
+  private final boolean enabled;
+  private final long ttlNanos;
+  private final int maxEntries;
+  private final Pattern denyPattern;
+  private final Pattern idPattern = Pattern.compile("\\d{4,}");
+  private final Map<String, Entry> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong uncacheable = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public ToolResultCache(@Value("${tools.cache.enabled:true}") boolean enabled,
+                         @Value("${tools.cache.ttl-ms:300000}") long ttlMs,
+                         @Value("${tools.cache.max-entries:1000}") int maxEntries,
+                         @Value("${tools.cache.deny-pattern:\\b(my|order|orders|track|tracking|ticket|balance|account|refund|cancel|delivery|delivered)\\b}") String denyPattern) {
+    this.enabled = enabled;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    this.maxEntries = maxEntries;
+    this.denyPattern = Pattern.compile(denyPattern, Pattern.CASE_INSENSITIVE);
+    this.entries = new LinkedHashMap<String, Entry>(Math.min(maxEntries, 1024), 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > ToolResultCache.this.maxEntries) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the cache key for a query, or {@code null} when its answer must not be cached.
+   */
+  public String keyFor(String inference) {
+    if (!enabled || inference == null) {
+      return null;
+    }
+    String key = normalize(inference);
+    if (key.isEmpty() || denyPattern.matcher(key).find() || idPattern.matcher(key).find()) {
+      uncacheable.incrementAndGet();
+      return null;
+    }
+    return key;
+  }
+
+  public String get(String key) {
+    if (key == null) {
+      return null;
+    }
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+      if (entry != null && System.nanoTime() - entry.storedAtNanos > ttlNanos) {
+        entries.remove(key);
+        entry = null;
+      }
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.value;
+  }
+
+  public void put(String key, String value) {
+    if (key == null || value == null) {
+      return;
+    }
+    synchronized (entries) {
+      entries.put(key, new Entry(value, System.nanoTime()));
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getUncacheable() {
+    return uncacheable.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  static String normalize(String query) {
+    StringBuilder normalized = new StringBuilder(query.length());
+    boolean space = false;
+    for (int i = 0; i < query.length(); i++) {
+      char c = query.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        if (space && normalized.length() > 0) {
+          normalized.append(' ');
+        }
+        normalized.append(Character.toLowerCase(c));
+        space = false;
+      } else {
+        space = true;
+      }
+    }
+    return normalized.toString();
+  }
+
+  private static final class Entry {
+    private final String value;
+    private final long storedAtNanos;
+
+    private Entry(String value, long storedAtNanos) {
+      this.value = value;
+      this.storedAtNanos = storedAtNanos;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package org.example;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Streaming reader for the events Twilio sends on {@code /media-stream}. It only looks at {@code event},
+ * {@code media.payload}, {@code mark.name}, {@code start.streamSid} and the {@code profile} custom
+ * parameter, skips everything else without building a tree, and
+ * copies the media payload straight into a reusable {@code input_audio_buffer.append} message.
+ * One instance per call; not thread-safe.
+ */
+final class TwilioEventParser {
+  enum Event { CONNECTED, START, MEDIA, STOP, MARK, UNKNOWN }
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final String APPEND_PREFIX = "{\"type\":\"input_audio_buffer.append\",\"audio\":\"";
+  private static final String APPEND_SUFFIX = "\"}";
+
+  private final StringBuilder payload = new StringBuilder(512);
+  private final StringBuilder audioAppend = new StringBuilder(APPEND_PREFIX.length() + 512);
+  private Event event;
+  private String eventName;
+  private String streamSid;
+  private String profile;
+  private String markName;
+
+  /**
+   * Reads one Twilio message. The accessors below describe it until the next call.
+   */
+  Event parse(String message) throws IOException {
+    event = Event.UNKNOWN;
+    eventName = null;
+    streamSid = null;
+    profile = null;
+    markName = null;
+    payload.setLength(0);
+    try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return event;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if ("event".equals(field) && value == JsonToken.VALUE_STRING) {
+          event = readEvent(parser);
+        } else if ("media".equals(field) && value == JsonToken.START_OBJECT) {
+          readMedia(parser);
+        } else if ("mark".equals(field) && value == JsonToken.START_OBJECT) {
+          readMark(parser);
+        } else if ("start".equals(field) && value == JsonToken.START_OBJECT) {
+          readStart(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return event;
+  }
+
+  Event getEvent() {
+    return event;
+  }
+
+  /**
+   * The raw event name, only kept for events this parser does not know.
+   */
+  String getEventName() {
+    return eventName;
+  }
+
+  String getStreamSid() {
+    return streamSid;
+  }
+
+  /**
+   * The name of the mark Twilio finished playing.
+   */
+  String getMarkName() {
+    return markName;
+  }
+
+  /**
+   * The assistant profile chosen by {@code /incoming-call}, passed as a stream custom parameter.
+   */
+  String getProfile() {
+    return profile;
+  }
+
+  /**
+   * The base64 μ-law payload of the last media event, backed by a reused buffer.
+   */
+  CharSequence getPayload() {
+    return payload;
+  }
+
+  /**
+   * The {@code input_audio_buffer.append} event for a base64 μ-law payload, usually {@link #getPayload()}.
+   */
+  String audioAppendMessage(CharSequence audio) {
+    audioAppend.setLength(0);
+    audioAppend.append(APPEND_PREFIX).append(audio).append(APPEND_SUFFIX);
+    return audioAppend.toString();
+  }
+
+  private Event readEvent(JsonParser parser) throws IOException {
+    if (textEquals(parser, "media")) {
+      return Event.MEDIA;
+    } else if (textEquals(parser, "start")) {
+      return Event.START;
+    } else if (textEquals(parser, "stop")) {
+      return Event.STOP;
+    } else if (textEquals(parser, "mark")) {
+      return Event.MARK;
+    } else if (textEquals(parser, "connected")) {
+      return Event.CONNECTED;
+    }
+    eventName = parser.getText();
+    return Event.UNKNOWN;
+  }
+
+  private void readMedia(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("payload".equals(field) && value == JsonToken.VALUE_STRING) {
+        payload.append(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private void readMark(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("name".equals(field) && value == JsonToken.VALUE_STRING) {
+        markName = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private void readStart(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("streamSid".equals(field) && value == JsonToken.VALUE_STRING) {
+        streamSid = parser.getText();
+      } else if ("customParameters".equals(field) && value == JsonToken.START_OBJECT) {
+        readCustomParameters(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private void readCustomParameters(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (TwilloResource.PROFILE_PARAMETER.equals(field) && value == JsonToken.VALUE_STRING) {
+        profile = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static boolean textEquals(JsonParser parser, String expected) throws IOException {
+    int length = parser.getTextLength();
+    if (length != expected.length()) {
+      return false;
+    }
+    char[] chars = parser.getTextCharacters();
+    int offset = parser.getTextOffset();
+    for (int i = 0; i < length; i++) {
+      if (chars[offset + i] != expected.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
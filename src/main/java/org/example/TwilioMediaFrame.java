@@ -0,0 +1,166 @@
+package org.example;
+
+/**
+ * Builds outbound Twilio {@code media} frames straight from the raw text of an OpenAI
+ * {@code response.audio.delta} event. The base64 {@code delta} is already exactly what Twilio expects in
+ * {@code media.payload}, so it is copied between a per-stream prefix and a fixed suffix without being
+ * decoded, re-encoded or wrapped in a JSON tree.
+ */
+final class TwilioMediaFrame {
+  private static final String AUDIO_DELTA_TYPE = "\"type\":\"response.audio.delta\"";
+  private static final String DELTA_KEY = "\"delta\":\"";
+  private static final String ITEM_ID_KEY = "\"item_id\":\"";
+  private static final String SUFFIX = "\"}}";
+  private static final String NO_STREAM_PREFIX = "{\"event\":\"media\",\"media\":{\"payload\":\"";
+
+  private final StringBuilder frame = new StringBuilder(8192);
+  // Set on the Twilio thread, read on the upstream read thread; both prefixes are published together
+  private volatile Stream stream;
+  private int lastDeltaBytes;
+  private int lastPayloadStart;
+  private int lastPayloadEnd;
+
+  /**
+   * Sets the stream the frames are addressed to. Until this is called {@link #fromAudioDelta} returns
+   * {@code null}. A {@code null} sid is ignored.
+   */
+  void setStreamSid(String streamSid) {
+    if (streamSid != null) {
+      stream = new Stream(streamSid);
+    }
+  }
+
+  /**
+   * Whether {@link #setStreamSid} has been called, after which {@link #mark} can be used.
+   */
+  boolean hasStream() {
+    return stream != null;
+  }
+
+  /**
+   * Twilio {@code mark} event, echoed back by Twilio once the audio queued before it has been played.
+   */
+  String mark(long id) {
+    return stream.markPrefix + id + SUFFIX;
+  }
+
+  /**
+   * Size in μ-law bytes (one byte per 8 kHz sample) of the audio in the last delta turned into a frame.
+   */
+  int getLastDeltaBytes() {
+    return lastDeltaBytes;
+  }
+
+  /**
+   * Where the base64 payload starts in the last frame returned, for {@link CallRecording}.
+   */
+  int getLastPayloadStart() {
+    return lastPayloadStart;
+  }
+
+  int getLastPayloadEnd() {
+    return lastPayloadEnd;
+  }
+
+  /**
+   * Returns the {@code item_id} of an audio delta, reusing {@code current} when it is unchanged so the
+   * common case allocates nothing.
+   */
+  static String itemId(String message, String current) {
+    int key = message.indexOf(ITEM_ID_KEY);
+    if (key < 0) {
+      return current;
+    }
+    int start = key + ITEM_ID_KEY.length();
+    int end = message.indexOf('"', start);
+    if (end < 0) {
+      return current;
+    }
+    if (current != null && current.length() == end - start && message.regionMatches(start, current, 0, current.length())) {
+      return current;
+    }
+    return message.substring(start, end);
+  }
+
+  /**
+   * Number of bytes encoded by the base64 text between {@code start} and {@code end}.
+   */
+  static int decodedLength(CharSequence base64, int start, int end) {
+    int length = end - start;
+    int padding = 0;
+    if (length > 0 && base64.charAt(end - 1) == '=') {
+      padding++;
+      if (length > 1 && base64.charAt(end - 2) == '=') {
+        padding++;
+      }
+    }
+    return length / 4 * 3 - padding;
+  }
+
+  /**
+   * Twilio {@code media} frame for a base64 payload already taken out of its JSON string, used for audio
+   * deltas {@link #fromAudioDelta} turned down. Base64 needs no JSON escaping, so it is copied as is.
+   * Same threading rules as {@link #fromAudioDelta}.
+   */
+  String media(String payload) {
+    frame.setLength(0);
+    Stream current = stream;
+    frame.append(current != null ? current.prefix : NO_STREAM_PREFIX);
+    lastPayloadStart = frame.length();
+    frame.append(payload);
+    lastPayloadEnd = frame.length();
+    frame.append(SUFFIX);
+    lastDeltaBytes = decodedLength(payload, 0, payload.length());
+    return frame.toString();
+  }
+
+  /**
+   * Returns {@code true} when the message is a compactly serialized {@code response.audio.delta} event.
+   */
+  static boolean isAudioDelta(String message) {
+    return message.indexOf(AUDIO_DELTA_TYPE) >= 0;
+  }
+
+  /**
+   * Returns the Twilio frame for a {@code response.audio.delta} message, or {@code null} when the message
+   * is not in the compact form this fast path understands and must take the regular JSON path.
+   * Not thread-safe: the frame buffer is reused, so call it from the upstream read thread only.
+   */
+  String fromAudioDelta(String message) {
+    Stream current = stream;
+    if (current == null) {
+      return null;
+    }
+    int key = message.indexOf(DELTA_KEY);
+    if (key < 0) {
+      return null;
+    }
+    int start = key + DELTA_KEY.length();
+    int end = message.indexOf('"', start);
+    if (end < 0) {
+      return null;
+    }
+    int escape = message.indexOf('\\', start);
+    if (escape >= 0 && escape < end) {
+      return null;
+    }
+    lastDeltaBytes = decodedLength(message, start, end);
+    frame.setLength(0);
+    frame.append(current.prefix);
+    lastPayloadStart = frame.length();
+    frame.append(message, start, end);
+    lastPayloadEnd = frame.length();
+    frame.append(SUFFIX);
+    return frame.toString();
+  }
+
+  private static final class Stream {
+    private final String prefix;
+    private final String markPrefix;
+
+    private Stream(String streamSid) {
+      this.prefix = "{\"event\":\"media\",\"streamSid\":\"" + streamSid + "\",\"media\":{\"payload\":\"";
+      this.markPrefix = "{\"event\":\"mark\",\"streamSid\":\"" + streamSid + "\",\"mark\":{\"name\":\"";
+    }
+  }
+}
@@ -0,0 +1,267 @@
+package org.example;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+import javax.websocket.Session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+/**
+ * Bounded outbound queue for one Twilio session. Any thread may enqueue; at most one task from the
+ * shared writer pool drains it at a time, so the session never sees concurrent sends and a slow
+ * Twilio link no longer blocks the upstream read thread. Only audio counts against the bound: on
+ * overflow audio is dropped per {@link OverflowPolicy}, while control events are always kept. A playback
+ * mark is dropped together with the audio it follows, and {@code markDropped} hears its id, so the played
+ * position Twilio echoes never counts audio the caller was not sent.
+ * <p>
+ * Each write may block for at most {@code sendTimeoutMs}, enforced by the container's blocking send
+ * timeout. A write that runs out of time means the peer stopped reading; the session is then closed and
+ * its queue discarded, so one stalled caller holds a writer thread for that long at most and never starves
+ * the other calls.
+ */
+@Slf4j
+final class TwilioOutboundQueue {
+  enum OverflowPolicy { DROP_OLDEST_AUDIO, DROP_NEWEST_AUDIO }
+
+  private static final byte AUDIO = 0;
+  private static final byte MARK = 1;
+  private static final byte CONTROL = 2;
+  // Tomcat's per-session limit on a blocking send, in milliseconds as a Long
+  private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+  private final WebSocketSession session;
+  private final Executor writerPool;
+  private final int maxQueuedAudio;
+  private final OverflowPolicy overflowPolicy;
+  private final TwilioOutboundStats stats;
+  private final LongConsumer markDropped;
+  private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+  private int queuedAudio;
+  // The newest audio frame was dropped on overflow, so the mark offered after it goes too
+  private boolean newestAudioDropped;
+  private boolean draining;
+  private boolean closed;
+
+  TwilioOutboundQueue(WebSocketSession session, Executor writerPool, int maxQueuedAudio,
+                      OverflowPolicy overflowPolicy, long sendTimeoutMs, TwilioOutboundStats stats,
+                      LongConsumer markDropped) {
+    this.session = session;
+    this.writerPool = writerPool;
+    this.maxQueuedAudio = maxQueuedAudio;
+    this.overflowPolicy = overflowPolicy;
+    this.stats = stats;
+    this.markDropped = markDropped;
+    limitSendTime(session, sendTimeoutMs);
+  }
+
+  private static void limitSendTime(WebSocketSession session, long sendTimeoutMs) {
+    if (!(session instanceof NativeWebSocketSession)) {
+      return;
+    }
+    Session nativeSession = ((NativeWebSocketSession) session).getNativeSession(Session.class);
+    if (nativeSession != null) {
+      nativeSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeoutMs);
+    }
+  }
+
+  void offerAudio(WebSocketMessage<?> message) {
+    offer(message, AUDIO, 0);
+  }
+
+  /**
+   * Queues the playback mark {@code markId} that follows the audio offered last.
+   */
+  void offerMark(WebSocketMessage<?> message, long markId) {
+    offer(message, MARK, markId);
+  }
+
+  void offerControl(WebSocketMessage<?> message) {
+    offer(message, CONTROL, 0);
+  }
+
+  /**
+   * Drops all audio and playback marks that have not been written yet. Control events stay queued.
+   * Returns the audio frames dropped.
+   */
+  int purgeAudio() {
+    int removed = 0;
+    int purged;
+    synchronized (queue) {
+      for (Iterator<Entry> it = queue.iterator(); it.hasNext(); ) {
+        if (it.next().kind != CONTROL) {
+          it.remove();
+          removed++;
+        }
+      }
+      purged = queuedAudio;
+      queuedAudio = 0;
+    }
+    if (removed > 0) {
+      stats.dequeued(removed);
+    }
+    if (purged > 0) {
+      stats.purgedAudio(purged);
+    }
+    return purged;
+  }
+
+  void close() {
+    int dropped;
+    synchronized (queue) {
+      closed = true;
+      dropped = queue.size();
+      queue.clear();
+      queuedAudio = 0;
+    }
+    stats.dequeued(dropped);
+  }
+
+  private void offer(WebSocketMessage<?> message, byte kind, long markId) {
+    boolean audio = kind == AUDIO;
+    long droppedMarkId = 0;
+    boolean startDrain = false;
+    int depth = 0;
+    synchronized (queue) {
+      if (closed) {
+        return;
+      }
+      if (kind == MARK && newestAudioDropped) {
+        newestAudioDropped = false;
+        droppedMarkId = markId;
+      } else if (audio && queuedAudio >= maxQueuedAudio && overflowPolicy == OverflowPolicy.DROP_NEWEST_AUDIO) {
+        stats.droppedAudio();
+        newestAudioDropped = true;
+        return;
+      } else {
+        if (audio && queuedAudio >= maxQueuedAudio) {
+          stats.droppedAudio();
+          droppedMarkId = removeOldestAudio();
+        }
+        if (audio) {
+          newestAudioDropped = false;
+          queuedAudio++;
+        }
+        queue.addLast(new Entry(message, kind, markId));
+        depth = queue.size();
+        startDrain = !draining;
+        draining = true;
+      }
+    }
+    if (droppedMarkId != 0) {
+      markDropped.accept(droppedMarkId);
+    }
+    if (depth == 0) {
+      return;
+    }
+    stats.enqueued(depth);
+    if (startDrain) {
+      try {
+        writerPool.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        synchronized (queue) {
+          draining = false;
+        }
+        log.info("Twilio writer pool rejected drain for session " + session.getId());
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest queued audio frame and the mark right after it. Returns that mark's id, or 0 when
+   * the frame had none.
+   */
+  private long removeOldestAudio() {
+    for (Iterator<Entry> it = queue.iterator(); it.hasNext(); ) {
+      if (it.next().kind == AUDIO) {
+        it.remove();
+        queuedAudio--;
+        stats.dequeued(1);
+        if (it.hasNext()) {
+          Entry next = it.next();
+          if (next.kind == MARK) {
+            it.remove();
+            stats.dequeued(1);
+            return next.markId;
+          }
+        }
+        return 0;
+      }
+    }
+    return 0;
+  }
+
+  private void drain() {
+    while (true) {
+      Entry entry;
+      synchronized (queue) {
+        entry = queue.pollFirst();
+        if (entry == null) {
+          draining = false;
+          return;
+        }
+        if (entry.kind == AUDIO) {
+          queuedAudio--;
+        }
+      }
+      stats.dequeued(1);
+      if (!session.isOpen()) {
+        continue;
+      }
+      try {
+        session.sendMessage(entry.message);
+        stats.sent();
+      } catch (Exception e) {
+        if (isTimeout(e)) {
+          stats.sendTimedOut();
+          log.info("Twilio session " + session.getId() + " stopped reading, closing it");
+          close();
+          closeSession();
+        } else {
+          stats.sendFailed();
+          log.info("Error sending message to Twilio: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Tomcat reports a send that ran out of time as an {@code IOException} caused by a
+   * {@link SocketTimeoutException}.
+   */
+  private static boolean isTimeout(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SocketTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void closeSession() {
+    try {
+      session.close(CloseStatus.SESSION_NOT_RELIABLE);
+    } catch (Exception e) {
+      log.info("Error closing Twilio session " + session.getId() + ": " + e.getMessage());
+    }
+  }
+
+  private static final class Entry {
+    private final WebSocketMessage<?> message;
+    private final byte kind;
+    private final long markId;
+
+    private Entry(WebSocketMessage<?> message, byte kind, long markId) {
+      this.message = message;
+      this.kind = kind;
+      this.markId = markId;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-wide counters for the per-session outbound queues to Twilio.
+ */
+@Component
+public class TwilioOutboundStats {
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger maxSessionDepth = new AtomicInteger();
+  private final AtomicInteger held = new AtomicInteger();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong droppedAudio = new AtomicLong();
+  private final AtomicLong purgedAudio = new AtomicLong();
+  private final AtomicLong sendFailures = new AtomicLong();
+  private final AtomicLong sendTimeouts = new AtomicLong();
+
+  void enqueued(int sessionDepth) {
+    queued.incrementAndGet();
+    if (sessionDepth > maxSessionDepth.get()) {
+      maxSessionDepth.accumulateAndGet(sessionDepth, Math::max);
+    }
+  }
+
+  void dequeued(int count) {
+    queued.addAndGet(-count);
+  }
+
+  /**
+   * Audio frames entering ({@code > 0}) or leaving an {@link OutboundPacer}.
+   */
+  void held(int delta) {
+    held.addAndGet(delta);
+  }
+
+  void sent() {
+    sent.incrementAndGet();
+  }
+
+  void droppedAudio() {
+    droppedAudio.incrementAndGet();
+  }
+
+  void purgedAudio(int count) {
+    purgedAudio.addAndGet(count);
+  }
+
+  void sendFailed() {
+    sendFailures.incrementAndGet();
+  }
+
+  void sendTimedOut() {
+    sendTimeouts.incrementAndGet();
+  }
+
+  /**
+   * Messages currently waiting in all outbound queues.
+   */
+  public int getQueued() {
+    return queued.get();
+  }
+
+  /**
+   * Deepest single-session queue seen since startup.
+   */
+  public int getMaxSessionDepth() {
+    return maxSessionDepth.get();
+  }
+
+  /**
+   * Audio frames the pacers hold back until Twilio is close to playing them.
+   */
+  public int getHeld() {
+    return held.get();
+  }
+
+  public long getSent() {
+    return sent.get();
+  }
+
+  public long getDroppedAudio() {
+    return droppedAudio.get();
+  }
+
+  public long getPurgedAudio() {
+    return purgedAudio.get();
+  }
+
+  public long getSendFailures() {
+    return sendFailures.get();
+  }
+
+  /**
+   * Sessions closed because a write to them did not finish within the send timeout.
+   */
+  public long getSendTimeouts() {
+    return sendTimeouts.get();
+  }
+}
@@ -0,0 +1,132 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/**
+ * Energy-based voice activity detector for one call's inbound μ-law frames. Speech frames pass straight
+ * through, and so do silent ones for a hangover period after speech, long enough for {@code server_vad}
+ * to see the end of the turn. Past that, silent frames are held in a short pre-roll ring instead of going
+ * upstream; one is let through every keep-alive interval, emptying the ring, and the ring is released
+ * ahead of the next speech frame so the model still gets its prefix padding. Not thread-safe; frames of a
+ * call arrive on its Twilio session thread.
+ */
+final class VoiceActivityGate {
+  private static final short[] MULAW_TO_LINEAR = new short[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      int u = ~i & 0xff;
+      int exponent = (u >> 4) & 0x07;
+      int mantissa = u & 0x0f;
+      int sample = (((mantissa << 3) + 0x84) << exponent) - 0x84;
+      MULAW_TO_LINEAR[i] = (short) ((u & 0x80) != 0 ? -sample : sample);
+    }
+  }
+
+  private final double thresholdPower;
+  private final int hangoverFrames;
+  private final int keepAliveFrames;
+  private final InboundAudioStats stats;
+  private final StringBuilder[] preroll;
+  private byte[] samples = new byte[320];
+  private int prerollStart;
+  private int prerollCount;
+  private int silentFrames;
+  private int suppressedSinceKeepAlive;
+  private boolean speaking;
+
+  VoiceActivityGate(double thresholdDbfs, int hangoverFrames, int prerollFrames, int keepAliveFrames,
+                    InboundAudioStats stats) {
+    double thresholdAmplitude = 32768 * Math.pow(10, thresholdDbfs / 20);
+    this.thresholdPower = thresholdAmplitude * thresholdAmplitude;
+    this.hangoverFrames = hangoverFrames;
+    this.keepAliveFrames = keepAliveFrames;
+    this.stats = stats;
+    this.preroll = new StringBuilder[prerollFrames];
+    for (int i = 0; i < prerollFrames; i++) {
+      preroll[i] = new StringBuilder(256);
+    }
+  }
+
+  /**
+   * Passes the base64 payload, and any pre-roll released ahead of it, to {@code forward} unless the frame
+   * is suppressed.
+   */
+  void onFrame(CharSequence payload, Consumer<CharSequence> forward) {
+    if (isSpeech(payload)) {
+      if (!speaking) {
+        releasePreroll(forward);
+      }
+      speaking = true;
+      silentFrames = 0;
+      forward.accept(payload);
+      return;
+    }
+
+    silentFrames++;
+    if (silentFrames <= hangoverFrames) {
+      forward.accept(payload);
+      return;
+    }
+    speaking = false;
+    if (keepAliveFrames > 0 && ++suppressedSinceKeepAlive >= keepAliveFrames) {
+      suppressedSinceKeepAlive = 0;
+      // Held frames are older than this one; releasing them later would reach upstream out of order
+      prerollStart = 0;
+      prerollCount = 0;
+      forward.accept(payload);
+      return;
+    }
+    stats.frameSuppressed();
+    hold(payload);
+  }
+
+  /**
+   * A payload that is not valid base64 counts as silence rather than ending the call.
+   */
+  private boolean isSpeech(CharSequence payload) {
+    int needed = AudioBase64.maxDecodedLength(payload.length());
+    if (needed > samples.length) {
+      samples = new byte[needed];
+    }
+    int count;
+    try {
+      count = AudioBase64.decode(payload, samples, 0);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    if (count == 0) {
+      return false;
+    }
+    long sumSquares = 0;
+    for (int i = 0; i < count; i++) {
+      int sample = MULAW_TO_LINEAR[samples[i] & 0xff];
+      sumSquares += sample * sample;
+    }
+    return (double) sumSquares / count >= thresholdPower;
+  }
+
+  private void hold(CharSequence payload) {
+    if (preroll.length == 0) {
+      return;
+    }
+    int slot;
+    if (prerollCount < preroll.length) {
+      slot = (prerollStart + prerollCount++) % preroll.length;
+    } else {
+      slot = prerollStart;
+      prerollStart = (prerollStart + 1) % preroll.length;
+    }
+    preroll[slot].setLength(0);
+    preroll[slot].append(payload);
+  }
+
+  private void releasePreroll(Consumer<CharSequence> forward) {
+    for (int i = 0; i < prerollCount; i++) {
+      forward.accept(preroll[(prerollStart + i) % preroll.length]);
+      stats.frameUnsuppressed();
+    }
+    prerollStart = 0;
+    prerollCount = 0;
+  }
+}
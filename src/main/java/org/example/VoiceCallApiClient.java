@@ -0,0 +1,63 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Client for the voicecall backend that answers the {@code get_user_query} tool.
+ */
+@Component
+public class VoiceCallApiClient {
+  static final String NO_RESPONSE = "No response from API";
+
+  private final RestTemplate restTemplate;
+  private final String url;
+  private final Timer latency;
+
+  public VoiceCallApiClient(RestTemplate restTemplate,
+                            @Value("${voicecall.api.url:https://api.qa1freshbots.com/api/slack/voicecall}") String url,
+                            MeterRegistry meterRegistry) {
+    this.restTemplate = restTemplate;
+    this.url = url;
+    this.latency = Timer.builder("voicecall.api.latency")
+            .description("Round trip of get_user_query calls to the voicecall backend")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(5))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(meterRegistry);
+  }
+
+  public String callVoiceApi(String userQuery) {
+    return latency.record(() -> exchange(userQuery));
+  }
+
+  private String exchange(String userQuery) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set("Content-Type", "application/json");
+    Map<String, Object> request = new HashMap<>();
+    request.put("twilio_message", userQuery);
+
+    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
+
+    ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
+
+    if (response.getBody() != null) {
+      Map<String, Object> responseBody = (Map<String, Object>) response.getBody().get("body");
+      if (responseBody != null) {
+        return (String) responseBody.get("assistantResponse");
+      }
+    }
+    return NO_RESPONSE;
+  }
+}
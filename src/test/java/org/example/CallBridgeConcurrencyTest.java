@@ -0,0 +1,237 @@
+package org.example;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs many calls through the bridge at once and checks that no call hears another's audio. Each simulated
+ * Twilio stream sends μ-law filled with its own byte value; the stub upstream echoes every appended chunk
+ * back as a {@code response.audio.delta} from its own read thread, so every media frame a stream receives
+ * must carry that stream's {@code streamSid} and nothing but its own byte value.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "openai.transport=echo",
+        "openai.realtime.api-key=test",
+        "openai.pool.size=0",
+        "bridge.routing.mode=local",
+        "recording.enabled=false",
+        "conversation-log.enabled=false"
+})
+class CallBridgeConcurrencyTest {
+  private static final int CALLS = 24;
+  private static final int FRAMES_PER_CALL = 50;
+  private static final int FRAME_BYTES = 160;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @LocalServerPort
+  private int port;
+
+  @Test
+  void concurrentCallsNeverShareAudio() throws Exception {
+    URI uri = URI.create("ws://127.0.0.1:" + port + "/media-stream");
+    StandardWebSocketClient client = new StandardWebSocketClient();
+    ExecutorService callers = Executors.newFixedThreadPool(CALLS);
+    List<TwilioStream> streams = new ArrayList<>();
+    CountDownLatch start = new CountDownLatch(1);
+    List<CompletableFuture<Void>> sent = new ArrayList<>();
+    try {
+      for (int i = 0; i < CALLS; i++) {
+        TwilioStream stream = new TwilioStream(i);
+        streams.add(stream);
+        stream.session = client.doHandshake(stream, null, uri).get(10, TimeUnit.SECONDS);
+      }
+      for (TwilioStream stream : streams) {
+        sent.add(CompletableFuture.runAsync(() -> stream.talk(start), callers));
+      }
+      start.countDown();
+      CompletableFuture.allOf(sent.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+      for (TwilioStream stream : streams) {
+        assertTrue(stream.received.await(30, TimeUnit.SECONDS),
+                stream.streamSid + " heard " + stream.media.size() + " of " + FRAMES_PER_CALL + " frames");
+      }
+      for (TwilioStream stream : streams) {
+        byte[] own = new byte[FRAME_BYTES];
+        Arrays.fill(own, stream.audioByte);
+        for (String frame : stream.media) {
+          JsonNode media = mapper.readTree(frame);
+          assertEquals(stream.streamSid, media.path("streamSid").asText(), "media frame for another stream");
+          assertArrayEquals(own, Base64.getDecoder().decode(media.path("media").path("payload").asText()),
+                  stream.streamSid + " heard another call's audio");
+        }
+        for (String mark : stream.marks) {
+          assertEquals(stream.streamSid, mapper.readTree(mark).path("streamSid").asText(), "mark for another stream");
+        }
+      }
+    } finally {
+      callers.shutdownNow();
+      for (TwilioStream stream : streams) {
+        if (stream.session != null && stream.session.isOpen()) {
+          stream.session.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * One simulated Twilio media stream, keeping every media and mark frame the bridge sends it.
+   */
+  private static final class TwilioStream extends TextWebSocketHandler {
+    private final String streamSid;
+    private final byte audioByte;
+    private final Queue<String> media = new ConcurrentLinkedQueue<>();
+    private final Queue<String> marks = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch received = new CountDownLatch(FRAMES_PER_CALL);
+    private volatile WebSocketSession session;
+
+    private TwilioStream(int index) {
+      this.streamSid = String.format("MZ%032x", index);
+      // Distinct and never the μ-law silence values 0xFF and 0x7F
+      this.audioByte = (byte) (index + 1);
+    }
+
+    private void talk(CountDownLatch start) {
+      byte[] audio = new byte[FRAME_BYTES];
+      Arrays.fill(audio, audioByte);
+      String payload = Base64.getEncoder().encodeToString(audio);
+      try {
+        start.await();
+        send("{\"event\":\"connected\",\"protocol\":\"Call\",\"version\":\"1.0.0\"}");
+        send("{\"event\":\"start\",\"sequenceNumber\":\"1\",\"start\":{\"accountSid\":\"ACtest\",\"streamSid\":\""
+                + streamSid + "\",\"callSid\":\"CA" + streamSid + "\",\"tracks\":[\"inbound\"],"
+                + "\"mediaFormat\":{\"encoding\":\"audio/x-mulaw\",\"sampleRate\":8000,\"channels\":1}},"
+                + "\"streamSid\":\"" + streamSid + "\"}");
+        for (int seq = 2; seq < FRAMES_PER_CALL + 2; seq++) {
+          send("{\"event\":\"media\",\"sequenceNumber\":\"" + seq + "\",\"media\":{\"track\":\"inbound\",\"chunk\":\""
+                  + seq + "\",\"timestamp\":\"" + (seq * 20) + "\",\"payload\":\"" + payload + "\"},\"streamSid\":\""
+                  + streamSid + "\"}");
+        }
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private synchronized void send(String text) throws Exception {
+      session.sendMessage(new TextMessage(text));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+      String text = message.getPayload();
+      if (text.contains("\"event\":\"media\"")) {
+        media.add(text);
+        received.countDown();
+      } else if (text.contains("\"event\":\"mark\"")) {
+        marks.add(text);
+      }
+    }
+  }
+
+  @TestConfiguration
+  static class EchoUpstream {
+    @Bean
+    RealtimeTransport echoRealtimeTransport() {
+      return new EchoRealtimeTransport();
+    }
+  }
+
+  /**
+   * Upstream that acknowledges the session and answers every {@code input_audio_buffer.append} with a
+   * {@code response.audio.delta} carrying the same audio, on a read thread of the connection's own.
+   */
+  static final class EchoRealtimeTransport implements RealtimeTransport {
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @Override
+    public OpenAiRealtimeConnection newConnection(URI uri, Map<String, String> headers, AssistantProfile profile) {
+      return new EchoConnection(profile, "item_" + connections.incrementAndGet());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> connect(OpenAiRealtimeConnection connection, long timeoutMs) {
+      ((EchoConnection) connection).open();
+      return CompletableFuture.completedFuture(true);
+    }
+  }
+
+  private static final class EchoConnection extends OpenAiRealtimeConnection {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String itemId;
+    private final ExecutorService readThread = Executors.newSingleThreadExecutor();
+    private volatile boolean open;
+
+    private EchoConnection(AssistantProfile profile, String itemId) {
+      super(profile);
+      this.itemId = itemId;
+    }
+
+    private void open() {
+      open = true;
+      onOpened();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void send(String text) {
+      JsonNode command = JsonUtils.getRootJsonNode(text);
+      String type = command.path("type").asText();
+      if ("session.update".equals(type)) {
+        readThread.execute(() -> onText("{\"type\":\"session.updated\"}"));
+      } else if ("input_audio_buffer.append".equals(type)) {
+        String delta = MAPPER.createObjectNode()
+                .put("type", "response.audio.delta")
+                .put("response_id", "resp_" + itemId)
+                .put("item_id", itemId)
+                .put("output_index", 0)
+                .put("content_index", 0)
+                .put("delta", command.path("audio").asText())
+                .toString();
+        readThread.execute(() -> onText(delta));
+      }
+    }
+
+    @Override
+    public void send(byte[] data) {
+    }
+
+    @Override
+    public void close() {
+      open = false;
+      readThread.shutdown();
+    }
+  }
+}
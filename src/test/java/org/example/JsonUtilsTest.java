@@ -0,0 +1,105 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the single-pass header-form parsing and the token-stream JSON validators in {@link JsonUtils}
+ * against the regex- and tree-based code they replaced, kept here as legacy copies, on the same inputs.
+ */
+class JsonUtilsTest {
+  private static final Pattern FORM = Pattern.compile("\\{(.+=.+,?)+\\}");
+  private static final ObjectMapper TREE_MAPPER = new ObjectMapper()
+          .configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true)
+          .configure(JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS, true);
+
+  static Stream<String> forms() {
+    return Stream.of(
+            "", " ", "   ", "\t", "{}", "{ }", "{=}", "{a=}", "{=b}", "{a=b}", "{ a = b }", "{a=b,}", "{a=b,,}",
+            "{a=b,c=d}", "{a=b,c=d,}", "{a=b, c=d}", "{a=b,c}", "{a=b,=d}", "{a=b,c=}", "{a==b}", "{a=b=}",
+            "{a=b==}", "{a=b=c}", "{a=b,c=d=e,f=g}", "{a=b", "a=b}", "a=b", "x{a=b}y", "{a=b}}", "{{a=b}",
+            "{a={b=c}}", "{a=b,c={d=e,f=g}}", "{a=b}{c=d}", "{a=b\n}", "{a=b}\n{c=d}", "\n{a=b}", "{a=b}\n",
+            "{a\n=b}\n{c=d}", "{a=b\r}", "{a=b\u2028c=d}", "{a=b\u0085}", "{a=\\,b}", "{a=\"b,c\"}", "{a=b\\}",
+            "{a\\=b=c}", "{key=value with spaces,other=x}", "{a=b,c=d}trailing", "{,}", "{,,a=b}", "{=,=}",
+            "{a=b}\r\n{c=d}", "{é=ü,ß=ç}");
+  }
+
+  static Stream<String> jsons() {
+    return Stream.of(
+            "", " ", "   ", "\n", "\t \r\n", "{}", "[]", "{ }", "[ ]", "null", "true", "1", "-1.5e3", "\"s\"",
+            "\"unterminated", "\"esc\\\"aped\"", "\"bad \\q escape\"", "\"\\u00e9\"", "\"\\u00zz\"",
+            "{\"a\":1}", "{a:1}", "{\"a\":1,}", "{\"a\":1", "{\"a\"}", "{\"a\":}", "[1,2,3]", "[1,2,]", "[1,2",
+            "[1 2]", "{\"a\":{\"b\":[1,{\"c\":\"d\"}]}}", "{\"a\":{\"b\":[1,{\"c\":\"d\"}]}", "[[[[]]]]", "[[[[]]]",
+            "{\"a\":\"line\nbreak\"}", "{\"a\":\"esc\\\"quote\"}", "{\"a\":\"back\\\\slash\"}", "{} {}", "[] x",
+            "{}x", "{\"a\":1}}", "]", "}", "{]", "[}", "tru", "nul", "01", "1.", "'single'", "{'a':1}", "/* c */ {}",
+            "{\"a\":[1,2,{\"b\":null}],\"c\":\"\\u0041\"}");
+  }
+
+  @ParameterizedTest
+  @MethodSource("forms")
+  void headerFormMatchesRegexParsing(String form) {
+    assertEquals(legacyIsValidFormData(form), JsonUtils.isValidFormData(form), "isValidFormData(" + form + ")");
+    assertEquals(legacyGetValuesFromHeaderForm(form), JsonUtils.getValuesFromHeaderForm(form),
+            "getValuesFromHeaderForm(" + form + ")");
+  }
+
+  @ParameterizedTest
+  @MethodSource("jsons")
+  void validatorsMatchTreeParsing(String json) {
+    JsonNode node = JsonUtils.getRootJsonNode(json);
+    assertEquals(node != null, JsonUtils.isValidJson(json), "isValidJson(" + json + ")");
+    assertEquals(node != null && node.isArray(), JsonUtils.isValidJsonArray(json), "isValidJsonArray(" + json + ")");
+    assertEquals(node != null && node.isObject(), JsonUtils.isValidJsonObject(json), "isValidJsonObject(" + json + ")");
+    assertEquals(legacyIsJsonArray(json), JsonUtils.isJsonArray(json), "isJsonArray(" + json + ")");
+  }
+
+  private static boolean legacyIsValidFormData(String formStr) {
+    boolean valid = false;
+    if (formStr != null && !formStr.isEmpty()) {
+      Matcher m = FORM.matcher(formStr);
+      if (m.matches()) {
+        valid = true;
+      }
+    }
+    return valid;
+  }
+
+  private static Map<String, String> legacyGetValuesFromHeaderForm(String formStr) {
+    Map<String, String> dataMap = new LinkedHashMap<>();
+    if (formStr != null && !formStr.isEmpty()) {
+      Matcher m = FORM.matcher(formStr);
+      if (m.find()) {
+        String[] formData = m.group(1).split(",");
+        for (String data : formData) {
+          String[] dataField = data.split("=");
+          if (dataField.length == 2) {
+            dataMap.put(dataField[0], dataField[1]);
+          }
+        }
+      }
+    }
+    return dataMap;
+  }
+
+  private static boolean legacyIsJsonArray(String json) {
+    try {
+      JsonNode jsonNode = TREE_MAPPER.readTree(json);
+      return jsonNode.getNodeType().equals(JsonNodeType.ARRAY);
+    } catch (IOException | RuntimeException e) {
+      return false;
+    }
+  }
+}